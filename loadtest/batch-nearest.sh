@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Benchmarks POST /api/v1/stores/nearest/batch against the N-request baseline (one
+# GET /api/v1/stores/product/{id}/nearby per drop-off point), see loadtest/k6/batch-nearest.js.
+#
+# Same setup as run-suite.sh: an already running app on a DB loaded by the datagen profile, fixtures (store locations to
+# jitter drop-off points around, well stocked product ids) sampled from the DB with psql using DB_URL / DB_USERNAME /
+# DB_PASSWORD. Prints and writes wall time per "answer ORIGINS points" for the three modes to $OUT.
+#   ORIGINS=500 LABEL=lateral loadtest/batch-nearest.sh
+# env overrides: BASE_URL, DURATION (per mode), VUS, ORIGINS, LIMIT, RADIUS_KM, BATCH_PER_HOST, LABEL, OUT
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+LABEL=${LABEL:-run}
+OUT=${OUT:-loadtest/results/batch-nearest-${LABEL}-$(date +%Y%m%d-%H%M%S).txt}
+
+command -v k6 >/dev/null || { echo "k6 is required: https://grafana.com/docs/k6/latest/set-up/install-k6/"; exit 1; }
+command -v psql >/dev/null || { echo "psql is required to sample the fixtures"; exit 1; }
+: "${DB_URL:?DB_URL must be set (same value the app uses)}"
+
+cd "$(dirname "$0")/.."
+mkdir -p loadtest/results "$(dirname "$OUT")"
+FIXTURES=$(pwd)/loadtest/results/batch-fixtures-${LABEL}.json
+
+curl -sf "${BASE_URL}/actuator/health" >/dev/null || { echo "app is not up at ${BASE_URL}"; exit 1; }
+
+export PGUSER=${DB_USERNAME:-${PGUSER:-}} PGPASSWORD=${DB_PASSWORD:-${PGPASSWORD:-}}
+PG_URI=$(echo "${DB_URL#jdbc:}" | sed 's/?.*//')
+
+psql "$PG_URI" -AtX -v ON_ERROR_STOP=1 > "$FIXTURES" <<'SQL'
+SELECT json_build_object(
+  'origins', (SELECT json_agg(json_build_object('lat', latitude, 'lon', longitude))
+              FROM (SELECT latitude, longitude FROM store WHERE is_active ORDER BY random() LIMIT 1000) o),
+  'productIds', (SELECT json_agg(product_id)
+                 FROM (SELECT product_id FROM inventory WHERE is_active AND stock_quantity > 0
+                       GROUP BY product_id ORDER BY COUNT(*) DESC LIMIT 50) p)
+);
+SQL
+
+grep -q '"origins" : null\|"productIds" : null' "$FIXTURES" && { echo "no stores/inventory in the DB, load data with the datagen profile first"; exit 1; }
+
+echo "==> $LABEL against $BASE_URL, summary -> $OUT"
+k6 run --quiet \
+  -e BASE_URL="$BASE_URL" -e FIXTURES="$FIXTURES" -e SUMMARY_FILE="$OUT" -e LABEL="$LABEL" \
+  ${DURATION:+-e DURATION="$DURATION"} ${VUS:+-e VUS="$VUS"} ${ORIGINS:+-e ORIGINS="$ORIGINS"} \
+  ${LIMIT:+-e LIMIT="$LIMIT"} ${RADIUS_KM:+-e RADIUS_KM="$RADIUS_KM"} ${BATCH_PER_HOST:+-e BATCH_PER_HOST="$BATCH_PER_HOST"} \
+  loadtest/k6/batch-nearest.js
@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Runs the same nearby-search load against the packaged app once per profile set and compares throughput / p99.
+#
+# Each argument is label=profiles, e.g.:
+#   loadtest/compare-profiles.sh baseline=dev tuned=dev,prod
+# The app is started with the normal env vars (DB_URL, DB_USERNAME, ...), warmed up, then driven with
+# `hey` (https://github.com/rakyll/hey). Summary goes to $OUT, raw hey reports and app logs to loadtest/results/.
+# env overrides: DURATION, CONCURRENCY, LAT, LON, RADIUS_KM, PORT, OUT
+set -euo pipefail
+
+[ $# -ge 1 ] || { echo "usage: $0 label=profiles [label=profiles ...]"; exit 1; }
+
+DURATION=${DURATION:-60s}
+CONCURRENCY=${CONCURRENCY:-200}
+LAT=${LAT:-6.5244}
+LON=${LON:-3.3792}
+RADIUS_KM=${RADIUS_KM:-5}
+PORT=${PORT:-8080}
+OUT=${OUT:-loadtest/results/compare-$(date +%Y%m%d-%H%M%S).txt}
+
+command -v hey >/dev/null || { echo "hey is required: go install github.com/rakyll/hey@latest"; exit 1; }
+
+cd "$(dirname "$0")/.."
+mkdir -p loadtest/results "$(dirname "$OUT")"
+ls target/ProductFinder-*.jar >/dev/null 2>&1 || ./mvnw -q -DskipTests package
+JAR=$(ls target/ProductFinder-*.jar | grep -v plain | head -1)
+URL="http://localhost:${PORT}/api/v1/stores/nearby?latitude=${LAT}&longitude=${LON}&radiusInKm=${RADIUS_KM}&page=0&size=10"
+
+run() {
+  local label=$1 profiles=$2
+  echo "==> $label (profiles: $profiles)"
+  java -jar "$JAR" --spring.profiles.active="$profiles" --server.port="$PORT" > "loadtest/results/app-$label.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" RETURN
+
+  for _ in $(seq 1 120); do
+    curl -sf "http://localhost:${PORT}/actuator/health" >/dev/null && break
+    sleep 1
+  done
+
+  hey -z 15s -c "$CONCURRENCY" "$URL" >/dev/null   # warm up JIT, pool and caches
+  local report
+  report=$(hey -z "$DURATION" -c "$CONCURRENCY" "$URL")
+
+  local rps p99 errors
+  rps=$(echo "$report" | awk '/Requests\/sec/ {print $2}')
+  p99=$(echo "$report" | awk '/ 99% in/ {print $3}')
+  errors=$(echo "$report" | awk '/Status code distribution/ {f=1; next} f && /\[/ && $1 !~ /\[200\]/ {s+=$2} END {print s+0}')
+  printf "%-12s rps=%-10s p99=%-8ss non_200=%s\n" "$label" "$rps" "$p99" "$errors" | tee -a "$OUT"
+  echo "$report" > "loadtest/results/hey-$label.txt"
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+echo "nearby search, ${CONCURRENCY} concurrent clients for ${DURATION}, $(date)" > "$OUT"
+for arg in "$@"; do
+  run "${arg%%=*}" "${arg#*=}"
+done
+echo "summary written to $OUT"
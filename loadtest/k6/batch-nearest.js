@@ -0,0 +1,152 @@
+// Batch nearest vs the N-request baseline, driven by loadtest/batch-nearest.sh (which also builds the fixtures file).
+//
+// One iteration = answer ORIGINS drop-off points for one product, three ways, each in its own time window so they
+// don't compete for the app / DB:
+//   n_sequential - one GET /api/v1/stores/product/{id}/nearby per origin, one after the other (the planner today)
+//   n_parallel   - the same GETs through http.batch (k6 keeps up to BATCH_PER_HOST of them in flight)
+//   batch        - one POST /api/v1/stores/nearest/batch with every origin
+// handleSummary writes the wall time per iteration (p50/p95/p99), iterations and error % per mode to SUMMARY_FILE,
+// plus the raw k6 json next to it.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Rate, Counter } from 'k6/metrics';
+import { SharedArray } from 'k6/data';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const DURATION = __ENV.DURATION || '60s';
+const VUS = parseInt(__ENV.VUS || '1');
+const ORIGINS = parseInt(__ENV.ORIGINS || '200');   // drop-off points per iteration
+const LIMIT = parseInt(__ENV.LIMIT || '5');          // stores per origin (batch)
+const RADIUS_KM = __ENV.RADIUS_KM || '5';            // radius of the per-origin baseline endpoint
+const BATCH_PER_HOST = parseInt(__ENV.BATCH_PER_HOST || '6');
+const SUMMARY_FILE = __ENV.SUMMARY_FILE || 'loadtest/results/batch-nearest-summary.txt';
+
+const fixtures = JSON.parse(open(__ENV.FIXTURES || '../results/batch-fixtures.json'));
+const origins = new SharedArray('origins', () => fixtures.origins);
+const productIds = new SharedArray('productIds', () => fixtures.productIds);
+
+const MODES = ['n_sequential', 'n_parallel', 'batch'];
+const wallTime = {};
+const errors = {};
+const httpRequests = {};
+for (const name of MODES) {
+    wallTime[name] = new Trend(`wall_${name}`, true);
+    errors[name] = new Rate(`errors_${name}`);
+    httpRequests[name] = new Counter(`http_requests_${name}`);
+}
+
+// DURATION each, back to back with a short gap
+function modeWindow(exec, index) {
+    const seconds = parseInt(DURATION);
+    return {
+        executor: 'constant-vus',
+        exec,
+        vus: VUS,
+        duration: DURATION,
+        startTime: `${index * (seconds + 5)}s`,
+        gracefulStop: '30s',
+    };
+}
+
+export const options = {
+    discardResponseBodies: false,
+    batchPerHost: BATCH_PER_HOST,
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max', 'count'],
+    scenarios: {
+        n_sequential: modeWindow('nSequential', 0),
+        n_parallel: modeWindow('nParallel', 1),
+        batch: modeWindow('batch', 2),
+    },
+};
+
+function pick(array) {
+    return array[Math.floor(Math.random() * array.length)];
+}
+
+// ORIGINS drop-off points sampled from the fixture origins, jittered by up to ~1km so repeats don't hit the same point
+function dropOffs() {
+    const points = [];
+    for (let i = 0; i < ORIGINS; i++) {
+        const o = pick(origins);
+        points.push({ latitude: o.lat + (Math.random() - 0.5) * 0.02, longitude: o.lon + (Math.random() - 0.5) * 0.02 });
+    }
+    return points;
+}
+
+function nearbyUrl(productId, point) {
+    return `${BASE_URL}/api/v1/stores/product/${productId}/nearby?latitude=${point.latitude}&longitude=${point.longitude}&radiusInKm=${RADIUS_KM}`;
+}
+
+// the per-origin endpoint answers 404 when nothing is in the radius, that's a valid answer not an error
+function ok(response) {
+    return response.status === 200 || response.status === 404;
+}
+
+export function nSequential() {
+    const productId = pick(productIds);
+    const points = dropOffs();
+    const started = Date.now();
+    let failed = 0;
+    for (const point of points) {
+        const response = http.get(nearbyUrl(productId, point), { tags: { mode: 'n_sequential' } });
+        if (!check(response, { 'nearby 200/404': ok })) {
+            failed++;
+        }
+    }
+    wallTime.n_sequential.add(Date.now() - started);
+    httpRequests.n_sequential.add(points.length);
+    errors.n_sequential.add(failed > 0);
+}
+
+export function nParallel() {
+    const productId = pick(productIds);
+    const points = dropOffs();
+    const started = Date.now();
+    const responses = http.batch(points.map((point) => ['GET', nearbyUrl(productId, point), null, { tags: { mode: 'n_parallel' } }]));
+    wallTime.n_parallel.add(Date.now() - started);
+    httpRequests.n_parallel.add(points.length);
+    errors.n_parallel.add(responses.some((response) => !check(response, { 'nearby 200/404': ok })));
+}
+
+export function batch() {
+    const body = JSON.stringify({ origins: dropOffs(), productId: pick(productIds), limit: LIMIT });
+    const started = Date.now();
+    const response = http.post(`${BASE_URL}/api/v1/stores/nearest/batch`, body,
+        { headers: { 'Content-Type': 'application/json' }, tags: { mode: 'batch' } });
+    wallTime.batch.add(Date.now() - started);
+    httpRequests.batch.add(1);
+    errors.batch.add(!check(response, {
+        'batch 200': (r) => r.status === 200,
+        'one result per origin': (r) => r.status === 200 && r.json('data.results').length === ORIGINS,
+    }));
+}
+
+function value(data, metric, stat) {
+    const m = data.metrics[metric];
+    return m && m.values[stat] !== undefined ? m.values[stat] : 0;
+}
+
+export function handleSummary(data) {
+    const lines = [
+        `# ${new Date().toISOString()} ${BASE_URL} duration=${DURATION}/mode vus=${VUS} origins=${ORIGINS} limit=${LIMIT} radius=${RADIUS_KM}km batch_per_host=${BATCH_PER_HOST} ${__ENV.LABEL || ''}`,
+        '# wall time = time to answer all origins once',
+        'mode           iterations  http_reqs   wall_p50_ms   wall_p95_ms   wall_p99_ms   errors_%',
+    ];
+    for (const name of MODES) {
+        lines.push([
+            name.padEnd(14),
+            String(value(data, `wall_${name}`, 'count')).padStart(10),
+            String(value(data, `http_requests_${name}`, 'count')).padStart(10),
+            value(data, `wall_${name}`, 'p(50)').toFixed(1).padStart(13),
+            value(data, `wall_${name}`, 'p(95)').toFixed(1).padStart(13),
+            value(data, `wall_${name}`, 'p(99)').toFixed(1).padStart(13),
+            (value(data, `errors_${name}`, 'rate') * 100).toFixed(2).padStart(10),
+        ].join(' '));
+    }
+    const report = lines.join('\n') + '\n';
+    return {
+        stdout: report,
+        [SUMMARY_FILE]: report,
+        [SUMMARY_FILE.replace(/\.txt$/, '') + '.json']: JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,171 @@
+// k6 scenarios for the read paths (nearby search, product near me, FTS) and the auth/write paths (login + refresh,
+// owner inventory updates). Driven by loadtest/run-suite.sh, which also builds the fixtures file.
+//
+// Every scenario records its own latency trend and error rate, handleSummary writes one line per scenario
+// (requests, rps, p50/p95/p99, error %) to SUMMARY_FILE plus the raw k6 summary json next to it.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Rate, Counter } from 'k6/metrics';
+import { SharedArray } from 'k6/data';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const DURATION = __ENV.DURATION || '60s';
+const RATE = parseInt(__ENV.RATE || '50');          // iterations/s per read scenario
+const WRITE_RATE = parseInt(__ENV.WRITE_RATE || '10');
+const RADIUS_KM = __ENV.RADIUS_KM || '5';
+const SUMMARY_FILE = __ENV.SUMMARY_FILE || 'loadtest/results/suite-summary.txt';
+
+const fixtures = JSON.parse(open(__ENV.FIXTURES || '../results/fixtures.json'));
+const origins = new SharedArray('origins', () => fixtures.origins);
+const productIds = new SharedArray('productIds', () => fixtures.productIds);
+const owners = new SharedArray('owners', () => fixtures.owners);
+const ftsQueries = new SharedArray('ftsQueries', () => fixtures.ftsQueries);
+
+const SCENARIOS = ['nearby', 'product_nearby', 'fts', 'nearby_fts', 'login_refresh', 'inventory_update'];
+const latency = {};
+const errors = {};
+const requests = {};
+for (const name of SCENARIOS) {
+    latency[name] = new Trend(`latency_${name}`, true);
+    errors[name] = new Rate(`errors_${name}`);
+    requests[name] = new Counter(`requests_${name}`);
+}
+
+function constant(exec, rate) {
+    return {
+        executor: 'constant-arrival-rate',
+        exec,
+        rate,
+        timeUnit: '1s',
+        duration: DURATION,
+        preAllocatedVUs: Math.max(10, rate * 2),
+        maxVUs: rate * 20,
+    };
+}
+
+export const options = {
+    discardResponseBodies: false,
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max', 'count'],
+    scenarios: {
+        nearby: constant('nearby', RATE),
+        product_nearby: constant('productNearby', RATE),
+        fts: constant('fts', RATE),
+        nearby_fts: constant('nearbyFts', RATE),
+        login_refresh: constant('loginRefresh', WRITE_RATE),
+        inventory_update: constant('inventoryUpdate', WRITE_RATE),
+    },
+};
+
+function pick(array) {
+    return array[Math.floor(Math.random() * array.length)];
+}
+
+function record(scenario, response, ok) {
+    latency[scenario].add(response.timings.duration);
+    requests[scenario].add(1);
+    errors[scenario].add(!ok);
+    return ok;
+}
+
+function get(scenario, url) {
+    const response = http.get(url, { tags: { scenario } });
+    return record(scenario, response, check(response, { [`${scenario} 200`]: (r) => r.status === 200 }));
+}
+
+export function nearby() {
+    const o = pick(origins);
+    get('nearby', `${BASE_URL}/api/v1/stores/nearby?latitude=${o.lat}&longitude=${o.lon}&radiusInKm=${RADIUS_KM}&page=0&size=10`);
+}
+
+export function productNearby() {
+    const o = pick(origins);
+    get('product_nearby', `${BASE_URL}/api/v1/stores/product/${pick(productIds)}/nearby?latitude=${o.lat}&longitude=${o.lon}&radiusInKm=${RADIUS_KM}`);
+}
+
+export function fts() {
+    get('fts', `${BASE_URL}/api/v1/stores/search/fts?query=${encodeURIComponent(pick(ftsQueries))}`);
+}
+
+export function nearbyFts() {
+    const o = pick(origins);
+    get('nearby_fts', `${BASE_URL}/api/v1/stores/search/nearby/fts?query=${encodeURIComponent(pick(ftsQueries))}&lat=${o.lat}&lon=${o.lon}&radiusKm=${RADIUS_KM}&page=0&size=10`);
+}
+
+function login(owner, scenario) {
+    const response = http.post(`${BASE_URL}/api/v1/auth/login`,
+        JSON.stringify({ username: owner.username, password: fixtures.password }),
+        { headers: { 'Content-Type': 'application/json' }, tags: { scenario, step: 'login' } });
+    const ok = check(response, { 'login 200': (r) => r.status === 200 });
+    record(scenario, response, ok);
+    return ok ? response.json('data') : null;
+}
+
+// one iteration = login, then trade the refresh token for a new access token
+export function loginRefresh() {
+    const jwt = login(pick(owners), 'login_refresh');
+    if (!jwt) {
+        return;
+    }
+    const response = http.post(`${BASE_URL}/api/v1/auth/refresh`,
+        JSON.stringify({ refreshToken: jwt.refreshToken }),
+        { headers: { 'Content-Type': 'application/json' }, tags: { scenario: 'login_refresh', step: 'refresh' } });
+    record('login_refresh', response, check(response, { 'refresh 200': (r) => r.status === 200 }));
+}
+
+// each VU logs in once as "its" owner and keeps the token, like a store dashboard would
+const tokens = {};
+
+export function inventoryUpdate() {
+    const owner = owners[(__VU - 1) % owners.length];
+    if (!tokens[owner.username]) {
+        const jwt = login(owner, 'inventory_update');
+        if (!jwt) {
+            return;
+        }
+        tokens[owner.username] = jwt.accessToken;
+    }
+    const body = JSON.stringify({
+        price: (100 + Math.random() * 50000).toFixed(2),
+        stockQuantity: Math.floor(Math.random() * 500),
+        isActive: true,
+    });
+    const response = http.patch(`${BASE_URL}/api/v1/inventory/update/${pick(owner.inventoryIds)}`, body, {
+        headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${tokens[owner.username]}` },
+        tags: { scenario: 'inventory_update', step: 'update' },
+    });
+    if (response.status === 401) {
+        delete tokens[owner.username];   // expired, log in again next iteration
+    }
+    record('inventory_update', response, check(response, { 'update 200': (r) => r.status === 200 }));
+}
+
+function value(data, metric, stat) {
+    const m = data.metrics[metric];
+    return m && m.values[stat] !== undefined ? m.values[stat] : 0;
+}
+
+export function handleSummary(data) {
+    const seconds = data.state.testRunDurationMs / 1000;
+    const lines = [
+        `# ${new Date().toISOString()} ${BASE_URL} duration=${DURATION} rate=${RATE}/s write_rate=${WRITE_RATE}/s radius=${RADIUS_KM}km ${__ENV.LABEL || ''}`,
+        'scenario           requests      rps     p50_ms     p95_ms     p99_ms   errors_%',
+    ];
+    for (const name of SCENARIOS) {
+        const count = value(data, `requests_${name}`, 'count');
+        lines.push([
+            name.padEnd(16),
+            String(count).padStart(10),
+            (count / seconds).toFixed(1).padStart(8),
+            value(data, `latency_${name}`, 'p(50)').toFixed(1).padStart(10),
+            value(data, `latency_${name}`, 'p(95)').toFixed(1).padStart(10),
+            value(data, `latency_${name}`, 'p(99)').toFixed(1).padStart(10),
+            (value(data, `errors_${name}`, 'rate') * 100).toFixed(2).padStart(10),
+        ].join(' '));
+    }
+    const report = lines.join('\n') + '\n';
+    return {
+        stdout: report,
+        [SUMMARY_FILE]: report,
+        [SUMMARY_FILE.replace(/\.txt$/, '') + '.json']: JSON.stringify(data, null, 2),
+    };
+}
@@ -0,0 +1,3 @@
+#!/usr/bin/env bash
+# lets the replica container stream WAL from the primary (local testing only)
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
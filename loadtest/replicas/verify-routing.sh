@@ -0,0 +1,130 @@
+#!/usr/bin/env bash
+# End-to-end check of the read/write split against the two instances from docker-compose.yml (primary :5432,
+# streaming replica :5433). Starts the packaged app with the replicas profile and asserts, through the actuator metrics:
+#   1. the replica streams from the primary and is in the read rotation (datasource.replica.available = 1)
+#   2. read-only requests are served by the replica (datasource.routing pool=replica-1 kind=read goes up)
+#   3. a paused (unreachable) replica leaves the rotation and reads fall back to the primary (kind=fallback goes up)
+#   4. a replica whose WAL receiver stops streaming leaves the rotation too (lag -1), and comes back once it streams again
+# usage: loadtest/replicas/verify-routing.sh   (needs docker compose, curl and the usual app env vars besides the DB ones)
+# env overrides: PORT, PROFILES (default dev,replicas), READS (requests per check), KEEP_DB=1 to leave the containers up
+set -euo pipefail
+
+PORT=${PORT:-8080}
+PROFILES=${PROFILES:-dev,replicas}
+READS=${READS:-20}
+BASE_URL="http://localhost:${PORT}"
+READ_URL="${BASE_URL}/api/v1/stores/nearby?latitude=6.5244&longitude=3.3792&radiusInKm=5&page=0&size=10"
+
+command -v docker >/dev/null || { echo "docker is required"; exit 1; }
+command -v curl >/dev/null || { echo "curl is required"; exit 1; }
+
+cd "$(dirname "$0")/../.."
+mkdir -p loadtest/results
+COMPOSE="docker compose -f loadtest/replicas/docker-compose.yml"
+APP_LOG=loadtest/results/app-verify-routing.log
+FAILURES=0
+APP_PID=
+CONNINFO=
+
+replica_sql() { $COMPOSE exec -T replica psql -U postgres -d product_finder -AtX -c "$1"; }
+primary_sql() { $COMPOSE exec -T primary psql -U postgres -d product_finder -AtX -c "$1"; }
+
+cleanup() {
+  [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+  $COMPOSE unpause replica >/dev/null 2>&1 || true
+  if [ -n "$CONNINFO" ]; then
+    replica_sql "ALTER SYSTEM SET primary_conninfo TO '${CONNINFO//\'/\'\'}'" >/dev/null 2>&1 || true
+    replica_sql "SELECT pg_reload_conf()" >/dev/null 2>&1 || true
+  fi
+  [ "${KEEP_DB:-0}" = 1 ] || $COMPOSE down -v >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+# first "value" of /actuator/metrics/<name>?tag=..., 0 when the meter doesn't exist (yet)
+metric() {
+  local body
+  body=$(curl -sf "${BASE_URL}/actuator/metrics/$1${2:+?$2}" || true)
+  echo "$body" | sed -n 's/.*"value":\([-0-9.E]*\).*/\1/p' | head -1 | grep . || echo 0
+}
+
+# wait_for <description> <seconds> <command...>
+wait_for() {
+  local what=$1 seconds=$2; shift 2
+  for _ in $(seq 1 "$seconds"); do
+    "$@" && return 0
+    sleep 1
+  done
+  echo "timed out after ${seconds}s waiting for: $what"
+  return 1
+}
+
+check() {
+  if [ "$2" = ok ]; then echo "PASS  $1"; else echo "FAIL  $1"; FAILURES=$((FAILURES + 1)); fi
+}
+
+available_is() { [ "$(metric datasource.replica.available tag=pool:replica-1)" = "$1" ]; }
+app_up() { curl -sf "${BASE_URL}/actuator/health" >/dev/null; }
+streaming() { [ "$(primary_sql "SELECT count(*) FROM pg_stat_replication WHERE state = 'streaming'" 2>/dev/null)" -ge 1 ] 2>/dev/null; }
+send_reads() { for _ in $(seq 1 "$READS"); do curl -s -o /dev/null "$READ_URL"; done; }
+grew_by_reads() { awk -v before="$1" -v after="$2" -v reads="$READS" 'BEGIN { exit !(after - before >= reads) }'; }
+
+echo "==> starting primary + replica"
+$COMPOSE up -d
+wait_for "replica streaming from the primary" 120 streaming
+
+ls target/ProductFinder-*.jar >/dev/null 2>&1 || ./mvnw -q -DskipTests package
+JAR=$(ls target/ProductFinder-*.jar | grep -v plain | head -1)
+
+echo "==> starting the app (profiles: $PROFILES), log -> $APP_LOG"
+DB_URL=jdbc:postgresql://localhost:5432/product_finder \
+DB_REPLICA_URLS=jdbc:postgresql://localhost:5433/product_finder \
+DB_USERNAME=postgres DB_PASSWORD=postgres \
+  java -jar "$JAR" --spring.profiles.active="$PROFILES" --server.port="$PORT" > "$APP_LOG" 2>&1 &
+APP_PID=$!
+wait_for "app health" 180 app_up
+
+# 1. replication works and the monitor sees it
+primary_sql "CREATE TABLE IF NOT EXISTS replica_check (id int); INSERT INTO replica_check VALUES (1)" >/dev/null
+wait_for "row to reach the replica" 30 sh -c "$COMPOSE exec -T replica psql -U postgres -d product_finder -AtX -c 'SELECT count(*) FROM replica_check' 2>/dev/null | grep -qv '^0$'" \
+  && check "replica receives the primary's writes" ok || check "replica receives the primary's writes" fail
+primary_sql "DROP TABLE replica_check" >/dev/null
+wait_for "replica in the rotation" 30 available_is 1.0 \
+  && check "replica-1 is in the read rotation" ok || check "replica-1 is in the read rotation" fail
+
+# 2. reads go to the replica
+before=$(metric datasource.routing "tag=pool:replica-1&tag=kind:read")
+send_reads
+after=$(metric datasource.routing "tag=pool:replica-1&tag=kind:read")
+grew_by_reads "$before" "$after" \
+  && check "$READS read-only requests routed to replica-1 ($before -> $after)" ok \
+  || check "$READS read-only requests routed to replica-1 ($before -> $after)" fail
+
+# 3. unreachable replica -> fallback to the primary
+$COMPOSE pause replica >/dev/null
+wait_for "paused replica out of the rotation" 30 available_is 0.0 \
+  && check "paused replica leaves the rotation" ok || check "paused replica leaves the rotation" fail
+before=$(metric datasource.routing "tag=pool:primary&tag=kind:fallback")
+send_reads
+after=$(metric datasource.routing "tag=pool:primary&tag=kind:fallback")
+grew_by_reads "$before" "$after" \
+  && check "reads fall back to the primary while it's paused ($before -> $after)" ok \
+  || check "reads fall back to the primary while it's paused ($before -> $after)" fail
+$COMPOSE unpause replica >/dev/null
+wait_for "replica back in the rotation" 30 available_is 1.0 \
+  && check "unpaused replica rejoins the rotation" ok || check "unpaused replica rejoins the rotation" fail
+
+# 4. reachable but not streaming (replay caught up with what it received, so the lag would look like 0)
+CONNINFO=$(replica_sql "SHOW primary_conninfo")
+replica_sql "ALTER SYSTEM SET primary_conninfo TO ''" >/dev/null
+replica_sql "SELECT pg_reload_conf()" >/dev/null
+wait_for "disconnected replica out of the rotation" 30 available_is 0.0 \
+  && check "replica without a streaming WAL receiver leaves the rotation (lag $(metric datasource.replica.lag tag=pool:replica-1))" ok \
+  || check "replica without a streaming WAL receiver leaves the rotation (lag $(metric datasource.replica.lag tag=pool:replica-1))" fail
+replica_sql "ALTER SYSTEM SET primary_conninfo TO '${CONNINFO//\'/\'\'}'" >/dev/null
+replica_sql "SELECT pg_reload_conf()" >/dev/null
+CONNINFO=
+wait_for "reconnected replica back in the rotation" 60 available_is 1.0 \
+  && check "replica rejoins once it streams again" ok || check "replica rejoins once it streams again" fail
+
+echo
+[ "$FAILURES" -eq 0 ] && echo "all checks passed" || { echo "$FAILURES check(s) failed, app log: $APP_LOG"; exit 1; }
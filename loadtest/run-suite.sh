@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Runs the search + auth load-test suite (loadtest/k6/search-and-auth.js) against an already running app and DB.
+#
+# Meant for a DB loaded by the datagen profile (SyntheticDataGenerator), so owners log in as owner<id>/password:
+#   java -jar app.jar --spring.profiles.active=dev,datagen --datagen.stores=100000
+#   java -jar app.jar --spring.profiles.active=dev &
+#   LABEL=baseline loadtest/run-suite.sh
+# Fixtures (search origins, product ids, FTS terms, owners with their inventory ids) are sampled from the DB with psql
+# using the app's DB_URL / DB_USERNAME / DB_PASSWORD, so every run hits real rows.
+# Per-scenario requests, rps, p50/p95/p99 and error % are written to $OUT (plus the full k6 json next to it); run it
+# before and after a change to StoreRepository / JWTAuthTokenFilter / InventoryService and diff the two files.
+# env overrides: BASE_URL, DURATION, RATE, WRITE_RATE, RADIUS_KM, OWNERS, OWNER_PASSWORD, LABEL, OUT
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+OWNERS=${OWNERS:-20}
+OWNER_PASSWORD=${OWNER_PASSWORD:-password}
+LABEL=${LABEL:-run}
+OUT=${OUT:-loadtest/results/suite-${LABEL}-$(date +%Y%m%d-%H%M%S).txt}
+
+command -v k6 >/dev/null || { echo "k6 is required: https://grafana.com/docs/k6/latest/set-up/install-k6/"; exit 1; }
+command -v psql >/dev/null || { echo "psql is required to sample the fixtures"; exit 1; }
+: "${DB_URL:?DB_URL must be set (same value the app uses)}"
+
+cd "$(dirname "$0")/.."
+mkdir -p loadtest/results "$(dirname "$OUT")"
+FIXTURES=$(pwd)/loadtest/results/fixtures-${LABEL}.json
+
+curl -sf "${BASE_URL}/actuator/health" >/dev/null || { echo "app is not up at ${BASE_URL}"; exit 1; }
+
+# jdbc:postgresql://host:5432/db?x=y -> postgresql://host:5432/db
+export PGUSER=${DB_USERNAME:-${PGUSER:-}} PGPASSWORD=${DB_PASSWORD:-${PGPASSWORD:-}}
+PG_URI=$(echo "${DB_URL#jdbc:}" | sed 's/?.*//')
+
+psql "$PG_URI" -AtX -v ON_ERROR_STOP=1 -v owners="$OWNERS" -v password="$OWNER_PASSWORD" > "$FIXTURES" <<'SQL'
+SELECT json_build_object(
+  'password', :'password',
+  'origins', (SELECT json_agg(json_build_object('lat', latitude, 'lon', longitude))
+              FROM (SELECT latitude, longitude FROM store WHERE is_active ORDER BY random() LIMIT 100) o),
+  'productIds', (SELECT json_agg(product_id)
+                 FROM (SELECT product_id FROM inventory WHERE is_active AND stock_quantity > 0
+                       GROUP BY product_id ORDER BY COUNT(*) DESC LIMIT 200) p),
+  'ftsQueries', (SELECT json_agg(q)
+                 FROM (SELECT name AS q FROM tag
+                       UNION ALL SELECT unnest(ARRAY['rice', 'supermarket', 'mini mart', 'provisions', 'pharmacy', 'drinks'])) t),
+  'owners', (SELECT json_agg(json_build_object('username', o.username, 'inventoryIds', o.inventory_ids))
+             FROM (SELECT u.username,
+                          (SELECT json_agg(i.id) FROM (SELECT i.id FROM inventory i JOIN store s ON s.id = i.store_id
+                                                      WHERE s.owner_id = u.id LIMIT 50) i) AS inventory_ids
+                   FROM users u
+                   JOIN user_roles ur ON ur.user_id = u.id
+                   JOIN role r ON r.id = ur.role_id AND r.name = 'STORE_OWNER'
+                   WHERE u.active AND NOT u.login_disabled
+                     AND EXISTS (SELECT 1 FROM store s JOIN inventory i ON i.store_id = s.id WHERE s.owner_id = u.id)
+                   ORDER BY u.id
+                   LIMIT :owners) o)
+);
+SQL
+
+grep -q '"owners" : null\|"origins" : null' "$FIXTURES" && { echo "no stores/owners in the DB, load data with the datagen profile first"; exit 1; }
+
+echo "==> $LABEL against $BASE_URL, summary -> $OUT"
+k6 run --quiet \
+  -e BASE_URL="$BASE_URL" -e FIXTURES="$FIXTURES" -e SUMMARY_FILE="$OUT" -e LABEL="$LABEL" \
+  ${DURATION:+-e DURATION="$DURATION"} ${RATE:+-e RATE="$RATE"} ${WRITE_RATE:+-e WRITE_RATE="$WRITE_RATE"} \
+  ${RADIUS_KM:+-e RADIUS_KM="$RADIUS_KM"} \
+  loadtest/k6/search-and-auth.js
@@ -0,0 +1,6 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 of GET /api/v1/stores/nearby with platform threads vs virtual threads.
+# usage: loadtest/thread-modes.sh   (PROFILE picks the base profile, default dev; see compare-profiles.sh for the rest)
+set -euo pipefail
+PROFILE=${PROFILE:-dev}
+exec "$(dirname "$0")/compare-profiles.sh" platform="$PROFILE" virtual="$PROFILE,virtual-threads"
@@ -0,0 +1,52 @@
+package com.ahmad.ProductFinder.benchmarks;
+
+import com.ahmad.ProductFinder.dtos.response.ApiResponseBody;
+import com.ahmad.ProductFinder.dtos.response.StoreResponseDto;
+import com.ahmad.ProductFinder.service.store.storeService.StoreMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * JSON writing of the ApiResponseBody wrapper, with a mapper configured like spring boot's default one
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponseBody nearbyStoresResponse;
+    private ApiResponseBody storeResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        nearbyStoresResponse = new ApiResponseBody("Nearby stores retrieved successfully",
+                new StoreMapper().toPagedResponseDto(BenchmarkFixtures.nearbyStorePage(pageSize)));
+        storeResponse = new ApiResponseBody("Store retrieved successfully",
+                StoreResponseDto.from(BenchmarkFixtures.store(1)));
+    }
+
+    @Benchmark
+    public byte[] nearbyStoresPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(nearbyStoresResponse);
+    }
+
+    @Benchmark
+    public byte[] singleStore() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(storeResponse);
+    }
+}
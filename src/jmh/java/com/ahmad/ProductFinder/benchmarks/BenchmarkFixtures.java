@@ -0,0 +1,104 @@
+package com.ahmad.ProductFinder.benchmarks;
+
+import com.ahmad.ProductFinder.embedded.Address;
+import com.ahmad.ProductFinder.models.Role;
+import com.ahmad.ProductFinder.models.Store;
+import com.ahmad.ProductFinder.models.Tag;
+import com.ahmad.ProductFinder.models.User;
+import com.ahmad.ProductFinder.projection.StoreProjection;
+import com.ahmad.ProductFinder.service.store.utils.StoreUtils;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/***
+ * the objects the benchmarks work on, shaped like what the app sees per request
+ */
+final class BenchmarkFixtures {
+    static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    static final List<String> TAG_NAMES = List.of("jollof rice", "suya", "pounded yam", "fufu", "garri", "egusi soup", "akara", "moimoi");
+
+    private BenchmarkFixtures() {
+    }
+
+    //no repositories needed by the helpers being measured
+    static StoreUtils storeUtils() {
+        return new StoreUtils(GEOMETRY_FACTORY, null, null, null);
+    }
+
+    static User user(String username, String... roleNames) {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername(username);
+        user.setEmail(username + "@lpf.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z0aRZUVcRMfXJaeTj7HxGd1i");
+        user.setAccountVerified(true);
+        long roleId = 1;
+        for (String roleName : roleNames) {
+            Role role = new Role(roleName);
+            role.setId(roleId++);
+            user.getRoles().add(role);
+        }
+        return user;
+    }
+
+    static Store store(long id) {
+        Store store = new Store();
+        store.setId(id);
+        store.setName("Mama Put Kitchen " + id);
+        store.setDescription("Local dishes, swallow and soups, open late. Delivery available within 5km.");
+        store.setAddress(new Address("12 Admiralty Way", "Lagos", "Lagos", "Nigeria", "106104"));
+        store.setLatitude(6.5244 + id * 1e-4);
+        store.setLongitude(3.3792 + id * 1e-4);
+        store.setLocation(point(store.getLongitude(), store.getLatitude()));
+        store.setActive(true);
+        store.setOwner(user("owner" + id, "USER", "STORE_OWNER"));
+        store.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        store.setUpdatedAt(LocalDateTime.of(2025, 6, 1, 12, 0));
+        long tagId = 1;
+        for (String tagName : TAG_NAMES.subList(0, 4)) {
+            store.getTags().add(new Tag(tagId++, tagName));
+        }
+        return store;
+    }
+
+    /***
+     * page of native query projections, backed by maps like the tuples spring data hands back for native queries
+     */
+    static Page<StoreProjection> nearbyStorePage(int size) {
+        SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        List<StoreProjection> content = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("name", "Mama Put Kitchen " + id);
+            row.put("description", "Local dishes, swallow and soups, open late.");
+            row.put("is_active", true);
+            row.put("latitude", 6.5244 + id * 1e-4);
+            row.put("longitude", 3.3792 + id * 1e-4);
+            row.put("street", "12 Admiralty Way");
+            row.put("city", "Lagos");
+            row.put("state", "Lagos");
+            row.put("country", "Nigeria");
+            row.put("postal_code", "106104");
+            row.put("distance_in_metres", 120.5 * id);
+            row.put("tags", new HashSet<>(TAG_NAMES.subList(0, 3)));
+            content.add(projectionFactory.createProjection(StoreProjection.class, row));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size), size * 10L);
+    }
+
+    static Point point(double longitude, double latitude) {
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+        point.setSRID(4326);
+        return point;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ahmad.ProductFinder.benchmarks;
+
+import com.ahmad.ProductFinder.security.jwt.JwtUtils;
+import com.ahmad.ProductFinder.security.user.LPFUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * token work done on login/refresh (generate) and on every authenticated request (parse + validate, JWTAuthTokenFilter)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private LPFUserDetails userDetails;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        set("jwtSecret", "benchmark-secret-benchmark-secret-benchmark-secret-0123456789");
+        set("accessTokenExpirationTime", 900_000L);
+        set("refreshTokenExpirationTime", 604_800_000L);
+
+        userDetails = LPFUserDetails.buildUserDetails(BenchmarkFixtures.user("ada", "USER", "STORE_OWNER"));
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        accessToken = jwtUtils.generateAccessToken(authentication);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtils.generateAccessToken(authentication);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtils.extractUsernameFromToken(accessToken);
+    }
+
+    //what JWTAuthTokenFilter does per request: validate, extract the username, then check it against the user
+    @Benchmark
+    public boolean filterTokenChecks() {
+        return jwtUtils.validateToken(accessToken)
+                && jwtUtils.extractUsernameFromToken(accessToken) != null
+                && jwtUtils.isTokenValid(userDetails, accessToken);
+    }
+
+    private void set(String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(JwtUtils.class, fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtUtils, value);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ahmad.ProductFinder.benchmarks;
+
+import com.ahmad.ProductFinder.dtos.response.NearbyStoreResponseDto;
+import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
+import com.ahmad.ProductFinder.dtos.response.StoreResponseDto;
+import com.ahmad.ProductFinder.models.Store;
+import com.ahmad.ProductFinder.projection.StoreProjection;
+import com.ahmad.ProductFinder.service.store.storeService.StoreMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * entity/projection -> response dto mapping, once per store in every search response
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreMappingBenchmark {
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private final StoreMapper storeMapper = new StoreMapper();
+    private Page<StoreProjection> nearbyPage;
+    private Store store;
+
+    @Setup
+    public void setUp() {
+        nearbyPage = BenchmarkFixtures.nearbyStorePage(pageSize);
+        store = BenchmarkFixtures.store(1);
+    }
+
+    @Benchmark
+    public PagedResponseDto<NearbyStoreResponseDto> toPagedResponseDto() {
+        return storeMapper.toPagedResponseDto(nearbyPage);
+    }
+
+    @Benchmark
+    public StoreResponseDto storeResponseDtoFrom() {
+        return StoreResponseDto.from(store);
+    }
+}
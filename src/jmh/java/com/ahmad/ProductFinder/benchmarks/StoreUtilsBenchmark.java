@@ -0,0 +1,37 @@
+package com.ahmad.ProductFinder.benchmarks;
+
+import com.ahmad.ProductFinder.service.store.utils.StoreUtils;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreUtilsBenchmark {
+    private StoreUtils storeUtils;
+    private Set<String> rawTagNames;
+
+    @Setup
+    public void setUp() {
+        storeUtils = BenchmarkFixtures.storeUtils();
+        //what clients actually send: mixed case, padding, blanks
+        rawTagNames = new HashSet<>(Set.of(" Jollof Rice", "SUYA ", "pounded yam", "  ", "Fufu", "egusi SOUP"));
+    }
+
+    @Benchmark
+    public Set<String> normalizeTagNames() {
+        return storeUtils.normalizeTagNames(rawTagNames);
+    }
+
+    @Benchmark
+    public Point convertCoordinatesToPoint() {
+        return storeUtils.convertCoordinatesToPoint(3.3792, 6.5244);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ahmad.ProductFinder.benchmarks;
+
+import com.ahmad.ProductFinder.models.User;
+import com.ahmad.ProductFinder.security.user.LPFUserDetails;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * runs on every authenticated request (LPFUserDetailsService.loadUserByUsername)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsBenchmark {
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user("ada", "USER", "STORE_OWNER", "ADMIN");
+    }
+
+    @Benchmark
+    public LPFUserDetails buildUserDetails() {
+        return LPFUserDetails.buildUserDetails(user);
+    }
+}
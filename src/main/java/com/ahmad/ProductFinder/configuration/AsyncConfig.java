@@ -0,0 +1,24 @@
+package com.ahmad.ProductFinder.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/***
+ * @Async methods run on spring boot's applicationTaskExecutor: a thread pool by default,
+ * one virtual thread per task when spring.threads.virtual.enabled=true (virtual-threads profile).
+ * Nobody waits on a void @Async method, so whatever it throws is logged here (e.g. a mail that couldn't be sent)
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("Async {}.{}() failed: {}",
+                method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+}
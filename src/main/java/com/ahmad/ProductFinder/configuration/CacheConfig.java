@@ -0,0 +1,47 @@
+package com.ahmad.ProductFinder.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+/***
+ * Caffeine caches for the hot read endpoints. Every cache is declared up front with its own spec
+ * (cache.<name>.spec, falls back to cache.default-spec) and records stats, so actuator binds hit/miss/eviction
+ * counters for each of them (cache.gets, cache.evictions ... tagged with the cache name).
+ * Caching advice runs last (lowest precedence), i.e. inside the @PreAuthorize check: a cached value is never handed
+ * out, and nothing is evicted, for a call the security interceptor rejected.
+ */
+@Slf4j
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE)
+public class CacheConfig {
+    private static final String DEFAULT_SPEC = "maximumSize=1000,expireAfterWrite=10m";
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setAllowNullValues(false);
+
+        String defaultSpec = environment.getProperty("cache.default-spec", DEFAULT_SPEC);
+        for (String cacheName : CacheNames.ALL) {
+            String spec = environment.getProperty("cache." + cacheName + ".spec", defaultSpec);
+            Caffeine<Object, Object> builder = Caffeine.from(spec);
+            if (!spec.contains("recordStats")) {
+                builder.recordStats();
+            }
+            caffeineCacheManager.registerCustomCache(cacheName, builder.build());
+            log.debug("Cache '{}' configured with spec: {}", cacheName, spec);
+        }
+
+        //puts/evicts made inside a transaction wait for the commit, otherwise a reader could re-cache the old row
+        //between our evict and the commit
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ahmad.ProductFinder.configuration;
+
+/***
+ * names of the caches set up in CacheConfig, size/ttl of each one is configured with cache.<name>.spec
+ */
+public final class CacheNames {
+    public static final String STORES = "stores";
+    public static final String STORE_PAGES = "storePages";
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String PRODUCT_IMAGES = "productImages";
+    public static final String TAGS = "tags";
+    public static final String STORE_TILES = "storeTiles";
+
+    static final String[] ALL = {STORES, STORE_PAGES, PRODUCTS, PRODUCTS_BY_CATEGORY, PRODUCT_IMAGES, TAGS, STORE_TILES};
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,97 @@
+package com.ahmad.ProductFinder.configuration.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * Primary + read replica pools behind one DataSource (replaces the auto-configured one while
+ * datasource.replicas.enabled=true, see application-replicas.properties):
+ * - primary: spring.datasource.* / spring.datasource.hikari.*, takes writes and anything outside a read-only transaction
+ * - replicas: datasource.replicas.urls (comma separated), spring.datasource.hikari.* overridden by
+ *   datasource.replicas.hikari.*, take @Transactional(readOnly = true) work while ReplicaLagMonitor says they're healthy
+ * Every pool reports the usual hikaricp.* metrics tagged with its pool name (primary, replica-1, ...).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig implements DisposableBean {
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaLagMonitor lagMonitor;
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+    @Value("${datasource.replicas.username:${spring.datasource.username}}")
+    private String replicaUsername;
+    @Value("${datasource.replicas.password:${spring.datasource.password}}")
+    private String replicaPassword;
+    @Value("${datasource.replicas.max-lag-seconds:5}")
+    private double maxLagSeconds;
+    @Value("${datasource.replicas.check-interval-ms:2000}")
+    private long checkIntervalMillis;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        MicrometerMetricsTrackerFactory metricsTrackerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReadReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricsTrackerFactory(metricsTrackerFactory);
+        pools.add(primary);
+
+        List<ReplicaPool> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(replicaUsername)
+                    .password(replicaPassword)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            binder.bind("datasource.replicas.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(metricsTrackerFactory);
+            pools.add(replica);
+            replicas.add(new ReplicaPool(replica.getPoolName(), replica));
+        }
+        if (replicas.isEmpty()) {
+            log.warn("datasource.replicas.enabled is set but datasource.replicas.urls is empty, every query goes to the primary");
+        } else {
+            log.info("Routing read-only transactions to {} replica(s), max lag {}s", replicas.size(), maxLagSeconds);
+            lagMonitor = new ReplicaLagMonitor(replicas, maxLagSeconds, checkIntervalMillis, meterRegistry);
+        }
+
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replicas, meterRegistry));
+    }
+
+    @Override
+    public void destroy() {
+        if (lagMonitor != null) {
+            lagMonitor.close();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ahmad.ProductFinder.configuration.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * Sends connections for @Transactional(readOnly = true) work to the available replicas (round robin), everything else
+ * (writes, non transactional calls, schema init) to the primary. When no replica is available (down or lagging, see
+ * ReplicaLagMonitor) reads fall back to the primary.
+ * The read-only flag is only known once the transaction has started, so this has to sit behind a
+ * LazyConnectionDataSourceProxy, otherwise the connection is picked before the flag is set.
+ * @Cacheable reads must not be readOnly: the cache would keep whatever a lagging replica returned after the evict.
+ * Every routing decision is counted in datasource.routing (tags: pool, kind = write | read | fallback).
+ */
+class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final List<ReplicaPool> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryWrites;
+    private final Counter primaryFallbacks;
+    private final Map<String, Counter> replicaReads = new HashMap<>();
+
+    ReadReplicaRoutingDataSource(DataSource primary, List<ReplicaPool> replicas, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaPool replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+            replicaReads.put(replica.getName(), routingCounter(meterRegistry, replica.getName(), "read"));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.primaryWrites = routingCounter(meterRegistry, PRIMARY, "write");
+        this.primaryFallbacks = routingCounter(meterRegistry, PRIMARY, "fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            ReplicaPool replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.isAvailable()) {
+                replicaReads.get(replica.getName()).increment();
+                return replica.getName();
+            }
+        }
+        primaryFallbacks.increment();
+        return PRIMARY;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String pool, String kind) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write routing datasource")
+                .tag("pool", pool)
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ahmad.ProductFinder.configuration.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Polls every replica for its replication lag and takes it out of the read rotation while it's unreachable, not
+ * streaming from the primary or more than maxLagSeconds behind it (back in as soon as it catches up). Exposes
+ * datasource.replica.lag (seconds, -1 = unknown) and datasource.replica.available (1/0) per pool.
+ */
+@Slf4j
+class ReplicaLagMonitor implements AutoCloseable {
+    /* a replica that has replayed everything it received is up to date, even if the primary has been idle for a while
+    and pg_last_xact_replay_timestamp() is old. That only holds while the WAL receiver is streaming: a disconnected
+    replica has also replayed everything it received, so no streaming receiver = NULL (lag unknown, out of rotation).
+    A server that isn't in recovery at all (plain second instance in local tests) counts as 0 lag
+     */
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END
+            """;
+
+    private final List<ReplicaPool> replicas;
+    private final double maxLagSeconds;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ReplicaLagMonitor(List<ReplicaPool> replicas, double maxLagSeconds, long checkIntervalMillis, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        for (ReplicaPool replica : replicas) {
+            Gauge.builder("datasource.replica.lag", replica, ReplicaPool::getLagSeconds)
+                    .description("Replication lag of the replica in seconds, -1 when unknown")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("1 while the replica takes read traffic")
+                    .tag("pool", replica.getName())
+                    .register(meterRegistry);
+        }
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkAll() {
+        for (ReplicaPool replica : replicas) {
+            check(replica);
+        }
+    }
+
+    private void check(ReplicaPool replica) {
+        boolean wasAvailable = replica.isAvailable();
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(2);
+            try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lag = rs.getDouble(1);
+                if (rs.wasNull()) {
+                    replica.update(false, -1);
+                    if (wasAvailable) {
+                        log.warn("Replica {} is not streaming from the primary, reads go to the primary", replica.getName());
+                    }
+                    return;
+                }
+                boolean available = lag <= maxLagSeconds;
+                replica.update(available, lag);
+                if (wasAvailable && !available) {
+                    log.warn("Replica {} is {}s behind (max {}s), reads go to the primary until it catches up", replica.getName(), lag, maxLagSeconds);
+                } else if (!wasAvailable && available) {
+                    log.info("Replica {} is back in the read rotation (lag {}s)", replica.getName(), lag);
+                }
+            }
+        } catch (Exception e) {
+            replica.update(false, -1);
+            if (wasAvailable) {
+                log.warn("Replica {} is unreachable, reads go to the primary: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ahmad.ProductFinder.configuration.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/***
+ * one read replica: its own hikari pool plus the state ReplicaLagMonitor keeps up to date. Starts unavailable, the
+ * first lag check decides
+ */
+class ReplicaPool {
+    private final String name;
+    private final HikariDataSource dataSource;
+    private volatile boolean available;
+    private volatile double lagSeconds = -1;
+
+    ReplicaPool(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    boolean isAvailable() {
+        return available;
+    }
+
+    double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    void update(boolean available, double lagSeconds) {
+        this.available = available;
+        this.lagSeconds = lagSeconds;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ahmad.ProductFinder.controller;
+
+import com.ahmad.ProductFinder.controller.swaggerDocs.HeatmapDocs;
+import com.ahmad.ProductFinder.dtos.response.ApiResponseBody;
+import com.ahmad.ProductFinder.dtos.response.ProductHeatmapResponseDto;
+import com.ahmad.ProductFinder.service.heatmapService.IProductHeatmapService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/heatmap")
+public class HeatmapController implements HeatmapDocs {
+    private final IProductHeatmapService productHeatmapService;
+
+    public HeatmapController(IProductHeatmapService productHeatmapService) {
+        this.productHeatmapService = productHeatmapService;
+    }
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ApiResponseBody> getProductHeatmap(@PathVariable Long productId,
+                                                             @RequestParam(required = false) String cell,
+                                                             @RequestParam(required = false) Integer precision) {
+        log.info("Product heatmap for product {} (cell={}, precision={})", productId, cell, precision);
+        ProductHeatmapResponseDto heatmap = productHeatmapService.getProductHeatmap(productId, cell, precision);
+        return ResponseEntity.ok(new ApiResponseBody("Product heatmap fetched successfully !", heatmap));
+    }
+}
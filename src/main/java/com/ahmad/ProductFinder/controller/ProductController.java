@@ -4,6 +4,7 @@ import com.ahmad.ProductFinder.controller.swaggerDocs.ProductDocs;
 import com.ahmad.ProductFinder.dtos.request.CreateProductRequestDto;
 import com.ahmad.ProductFinder.dtos.request.UpdateProductRequestDto;
 import com.ahmad.ProductFinder.dtos.response.ApiResponseBody;
+import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
 import com.ahmad.ProductFinder.dtos.response.ProductResponseDto;
 import com.ahmad.ProductFinder.service.productService.IProductService;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -94,6 +95,17 @@ public class ProductController implements ProductDocs {
                 .ok(new ApiResponseBody("Products matching name retrieved successfully !", results));
     }
 
+    @GetMapping("/search/fts")
+    public ResponseEntity<ApiResponseBody> searchProductsByFullTextSearch(@RequestParam String query,
+                                                                          @RequestParam(defaultValue = "0") int page,
+                                                                          @RequestParam(defaultValue = "10") int size) {
+        log.info("Received request to full text search products with query: {}", query);
+        PagedResponseDto<ProductResponseDto> results = productService.searchProductsByFullTextSearch(query, page, size);
+        log.info("Found {} product(s) matching query: {}", results.getTotalElements(), query);
+        return ResponseEntity
+                .ok(new ApiResponseBody("Products matching query retrieved successfully !", results));
+    }
+
     @GetMapping("/price/range")
     public ResponseEntity<ApiResponseBody> filterProductByPriceRange(@RequestParam BigDecimal min, @RequestParam BigDecimal max) {
         log.info("Received request to filter products in price range: {} - {}", min, max);
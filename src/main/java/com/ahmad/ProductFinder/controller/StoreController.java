@@ -1,7 +1,9 @@
 package com.ahmad.ProductFinder.controller;
 
 import com.ahmad.ProductFinder.controller.swaggerDocs.StoreDocs;
+import com.ahmad.ProductFinder.dtos.request.BatchNearestStoresRequestDto;
 import com.ahmad.ProductFinder.dtos.request.CreateStoreRequestDto;
+import com.ahmad.ProductFinder.dtos.request.BoundingBoxParams;
 import com.ahmad.ProductFinder.dtos.request.NearbyStoreSearchParams;
 import com.ahmad.ProductFinder.dtos.request.UpdateStoreRequestDto;
 import com.ahmad.ProductFinder.dtos.response.*;
@@ -30,6 +32,8 @@ import static java.lang.String.format;
 @RequestMapping("/api/v1/stores")
 @Tag(name = "Store Management", description = "APIs for creating, updating, retrieving, deleting, and searching stores, including location-based searches and product availability.")
 public class StoreController implements StoreDocs {
+    private static final int MAX_TAG_SEARCH_PAGE_SIZE = 50;
+
     private final IStoreService storeService;
     private final INearbyStoreService nearbyStoreService;
 
@@ -121,11 +125,58 @@ public class StoreController implements StoreDocs {
         return ResponseEntity.ok(new ApiResponseBody("Nearby Stores Fetched Successfully ! ", results));
     }
 
+    @GetMapping(value = "/nearby/facets")
+    public ResponseEntity<ApiResponseBody> findNearbyStoresWithTagFacets(@ModelAttribute NearbyStoreSearchParams params) {
+        log.info("Searching for nearby stores with tag facets at lat: {}, long: {} within radius: {} km", params.getLatitude(), params.getLongitude(), params.getRadiusInKm());
+        NearbyStoreFacetsResponseDto results = nearbyStoreService.findNearbyStoresWithTagFacets(params);
+        log.info("Found {} nearby store(s) across {} tag(s)", results.stores().getTotalElements(), results.tagFacets().size());
+        return ResponseEntity.ok(new ApiResponseBody("Nearby Stores with tag facets Fetched Successfully ! ", results));
+    }
+
+    @GetMapping("/nearest")
+    public ResponseEntity<ApiResponseBody> findNearestStores(@RequestParam double latitude,
+                                                             @RequestParam double longitude,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) Long productId) {
+        log.info("Searching nearest stores to lat: {}, long: {} (limit={}, productId={})", latitude, longitude, limit, productId);
+        List<NearbyStoreResponseDto> results = nearbyStoreService.findNearestStores(latitude, longitude, limit, productId);
+        return ResponseEntity.ok(new ApiResponseBody("Nearest stores fetched successfully !", results));
+    }
+
+    @PostMapping("/nearest/batch")
+    public ResponseEntity<ApiResponseBody> findNearestStoresForOrigins(@RequestBody @Valid BatchNearestStoresRequestDto request) {
+        log.info("Searching nearest stores for {} origin(s) (limit={}, productId={})", request.origins().size(), request.limit(), request.productId());
+        BatchNearestStoresResponseDto results = nearbyStoreService.findNearestStoresForOrigins(request);
+        return ResponseEntity.ok(new ApiResponseBody("Nearest stores per origin fetched successfully !", results));
+    }
+
+    @GetMapping("/viewport")
+    public ResponseEntity<ApiResponseBody> findStoresInViewport(@ModelAttribute BoundingBoxParams box,
+                                                                @RequestParam(required = false) String tag,
+                                                                @RequestParam(required = false) Long productId,
+                                                                @RequestParam(required = false) Integer limit) {
+        log.info("Searching stores in box ({}, {}) - ({}, {}) tag={} productId={}", box.getMinLatitude(), box.getMinLongitude(),
+                box.getMaxLatitude(), box.getMaxLongitude(), tag, productId);
+        ViewportStoresResponseDto results = nearbyStoreService.findStoresInViewport(box, tag, productId, limit);
+        return ResponseEntity.ok(new ApiResponseBody("Stores in viewport fetched successfully !", results));
+    }
+
+    @GetMapping("/clusters")
+    public ResponseEntity<ApiResponseBody> findStoreClusters(@ModelAttribute BoundingBoxParams box,
+                                                             @RequestParam int zoom) {
+        log.info("Clustering stores in box ({}, {}) - ({}, {}) at zoom {}", box.getMinLatitude(), box.getMinLongitude(),
+                box.getMaxLatitude(), box.getMaxLongitude(), zoom);
+        StoreClustersResponseDto results = nearbyStoreService.findStoreClusters(box, zoom);
+        return ResponseEntity.ok(new ApiResponseBody("Store clusters fetched successfully !", results));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<ApiResponseBody> searchStoresByStoreName(@RequestParam String storeName) {
+    public ResponseEntity<ApiResponseBody> searchStoresByStoreName(@RequestParam String storeName,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "10") int size) {
         log.info("Searching stores with name like: {}", storeName);
-        List<StoreWithInventoryDto> results = storeService.searchStoresUsingStoreName(storeName);
-        log.info("Found {} store(s) matching '{}'", results.size(), storeName);
+        PagedResponseDto<StoreWithInventoryDto> results = storeService.searchStoresUsingStoreName(storeName, page, size);
+        log.info("Found {} store(s) matching '{}'", results.getContent().size(), storeName);
         return ResponseEntity
                 .ok(new ApiResponseBody(format("Stores matching value,'%s' , provided successfully !", storeName), results));
     }
@@ -159,8 +210,10 @@ public class StoreController implements StoreDocs {
     public ResponseEntity<ApiResponseBody> searchNearbyStoresUsingFts(@RequestParam String query,
                                                                       @RequestParam double lat,
                                                                       @RequestParam double lon,
-                                                                      @RequestParam double radiusKm) {
-        List<NearbyStoreResponseDto> results = nearbyStoreService.searchNearbyWithFullTextSearchAndProductInStock(query, lat, lon, radiusKm);
+                                                                      @RequestParam double radiusKm,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "10") int size) {
+        PagedResponseDto<NearbyStoreResponseDto> results = nearbyStoreService.searchNearbyWithFullTextSearchAndProductInStock(query, lat, lon, radiusKm, page, size);
         return ResponseEntity
                 .ok(new ApiResponseBody("Search nearby stores using FTS results: ", results));
     }
@@ -203,7 +256,7 @@ public class StoreController implements StoreDocs {
                                                             @RequestParam(defaultValue = "10") int size,
                                                             @RequestParam(defaultValue = "name") String sortBy,
                                                             @RequestParam(defaultValue = "asc") String direction) {
-        Pageable pageable = PageRequest.of(page, size,
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_TAG_SEARCH_PAGE_SIZE),
                 direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending());
 
         PagedResponseDto<StoreResponseDto> results = storeService.findStoresByTags(tags, matchAll, pageable);
@@ -0,0 +1,52 @@
+package com.ahmad.ProductFinder.controller;
+
+import com.ahmad.ProductFinder.controller.swaggerDocs.TileDocs;
+import com.ahmad.ProductFinder.service.store.tileService.IStoreTileService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/tiles")
+public class TileController implements TileDocs {
+    private static final String MVT_MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+
+    private final IStoreTileService storeTileService;
+
+    @Value("${tiles.browser-max-age-seconds:60}")
+    private long browserMaxAgeSeconds;
+
+    public TileController(IStoreTileService storeTileService) {
+        this.storeTileService = storeTileService;
+    }
+
+    //raw protobuf, not wrapped in ApiResponseBody, map clients (maplibre, openlayers) load it straight from the url template
+    @GetMapping(value = "/{z}/{x}/{y}.mvt", produces = MVT_MEDIA_TYPE)
+    public ResponseEntity<byte[]> getStoreTile(@PathVariable int z,
+                                               @PathVariable int x,
+                                               @PathVariable int y,
+                                               @RequestParam(required = false) String tag,
+                                               @RequestParam(required = false) Long productId) {
+        byte[] tile = storeTileService.getStoreTile(z, x, y, tag, productId);
+        log.debug("Serving tile {}/{}/{} (tag={}, productId={}): {} bytes", z, x, y, tag, productId, tile.length);
+
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(browserMaxAgeSeconds)).cachePublic();
+        if (tile.length == 0) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(MVT_MEDIA_TYPE))
+                .body(tile);
+    }
+}
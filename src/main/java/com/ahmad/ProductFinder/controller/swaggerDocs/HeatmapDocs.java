@@ -0,0 +1,32 @@
+package com.ahmad.ProductFinder.controller.swaggerDocs;
+
+import com.ahmad.ProductFinder.dtos.response.ApiResponseBody;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+public interface HeatmapDocs {
+
+    @Operation(
+            summary = "Product availability heatmap",
+            description = "Where a product is in stock and how densely: per geohash cell, the number of active stores with it in stock "
+                    + "and the lowest price among them. Served from a precomputed aggregate kept current by inventory and store writes. "
+                    + "Pick the area with a geohash cell (e.g. the 4-5 characters covering a city) and the size of the returned cells with precision.",
+            parameters = {
+                    @Parameter(name = "productId", description = "Product ID", example = "12", required = true),
+                    @Parameter(name = "cell", description = "Only this geohash cell (empty = the whole world)", example = "s14m"),
+                    @Parameter(name = "precision", description = "Geohash length of the returned cells, between the cell length and the stored precision "
+                            + "(default: cell length + 2)", example = "6")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Heatmap cells.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid cell or precision."),
+                    @ApiResponse(responseCode = "404", description = "Product not found."),
+                    @ApiResponse(responseCode = "500", description = "Internal server error.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> getProductHeatmap(Long productId, String cell, Integer precision);
+}
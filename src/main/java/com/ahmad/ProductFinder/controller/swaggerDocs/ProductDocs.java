@@ -132,6 +132,23 @@ public interface ProductDocs {
     )
     ResponseEntity<ApiResponseBody> searchProductsByName(@RequestParam String productName);
 
+    @Operation(
+            summary = "Full-text product search",
+            description = "Ranked search over product name, category and description. Every word is prefix matched, so 'rice' also finds 'ofada rice'. Paginated, page size is capped at 50.",
+            parameters = {
+                    @Parameter(name = "query", description = "Search keywords", required = true, example = "ofada rice"),
+                    @Parameter(name = "page", description = "Page number", required = false),
+                    @Parameter(name = "size", description = "Page size (max 50)", required = false)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Matching products returned.",
+                            content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "404", description = "No product matched."),
+                    @ApiResponse(responseCode = "500", description = "Server error.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> searchProductsByFullTextSearch(@RequestParam String query, @RequestParam int page, @RequestParam int size);
+
     @Operation(
             summary = "Filter products by price range",
             description = "Fetches products within the given price range.",
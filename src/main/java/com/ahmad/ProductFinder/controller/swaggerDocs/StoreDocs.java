@@ -1,5 +1,7 @@
 package com.ahmad.ProductFinder.controller.swaggerDocs;
 
+import com.ahmad.ProductFinder.dtos.request.BatchNearestStoresRequestDto;
+import com.ahmad.ProductFinder.dtos.request.BoundingBoxParams;
 import com.ahmad.ProductFinder.dtos.request.CreateStoreRequestDto;
 import com.ahmad.ProductFinder.dtos.request.NearbyStoreSearchParams;
 import com.ahmad.ProductFinder.dtos.request.UpdateStoreRequestDto;
@@ -131,18 +133,112 @@ public interface StoreDocs {
     )
     ResponseEntity<ApiResponseBody> findNearbyStores(@Parameter(hidden = true) NearbyStoreSearchParams params);
 
+    @Operation(
+            summary = "Search nearby stores with tag facets",
+            description = "Same as the nearby search, plus how many stores in the whole radius carry each tag (e.g. 12 tagged suya, 4 tagged zobo).",
+            requestBody = @RequestBody(
+                    required = true,
+                    description = "Latitude, longitude, and radius",
+                    content = @Content(schema = @Schema(implementation = NearbyStoreSearchParams.class))
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stores and tag facets found.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "404", description = "No stores within the radius."),
+                    @ApiResponse(responseCode = "500", description = "Error occurred.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> findNearbyStoresWithTagFacets(@Parameter(hidden = true) NearbyStoreSearchParams params);
+
+    @Operation(
+            summary = "Nearest stores",
+            description = "The N active stores closest to the location, whatever the distance (no radius), optionally only stores with a product in stock. "
+                    + "Sorted by exact distance, which is returned for every store.",
+            parameters = {
+                    @Parameter(name = "latitude", description = "Latitude", example = "6.5244", required = true),
+                    @Parameter(name = "longitude", description = "Longitude", example = "3.3792", required = true),
+                    @Parameter(name = "limit", description = "How many stores (default 10, capped by the server)", example = "10"),
+                    @Parameter(name = "productId", description = "Only stores with this product in stock", example = "12")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stores found.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid coordinates or limit."),
+                    @ApiResponse(responseCode = "500", description = "Error occurred.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> findNearestStores(double latitude, double longitude, Integer limit, Long productId);
+
+    @Operation(
+            summary = "Nearest stores for many origins",
+            description = "Same as /nearest for a whole list of origins (e.g. delivery drop-off points) in one request and one query. "
+                    + "Returns one entry per origin in request order, each with its N nearest active stores sorted by exact distance; "
+                    + "an origin with no match gets an empty list. The number of origins and N are capped by the server.",
+            requestBody = @RequestBody(
+                    description = "Origins, optional product filter and stores per origin",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BatchNearestStoresRequestDto.class))
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stores found.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "400", description = "No origins, too many origins, invalid coordinates or limit."),
+                    @ApiResponse(responseCode = "500", description = "Error occurred.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> findNearestStoresForOrigins(BatchNearestStoresRequestDto request);
+
+    @Operation(
+            summary = "Stores inside a map viewport",
+            description = "Active stores inside the bounding box, closest to its centre first, optionally only those with a tag or with a product in stock. "
+                    + "The result is capped; truncated is true when the viewport holds more stores than were returned.",
+            parameters = {
+                    @Parameter(name = "minLatitude", description = "Southern edge latitude", example = "6.40", required = true),
+                    @Parameter(name = "minLongitude", description = "Western edge longitude", example = "3.25", required = true),
+                    @Parameter(name = "maxLatitude", description = "Northern edge latitude", example = "6.70", required = true),
+                    @Parameter(name = "maxLongitude", description = "Eastern edge longitude", example = "3.60", required = true),
+                    @Parameter(name = "tag", description = "Only stores with this tag", example = "pharmacy"),
+                    @Parameter(name = "productId", description = "Only stores with this product in stock", example = "12"),
+                    @Parameter(name = "limit", description = "Max stores to return, never more than the server cap", example = "200")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stores found.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid bounding box or limit."),
+                    @ApiResponse(responseCode = "500", description = "Error occurred.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> findStoresInViewport(@Parameter(hidden = true) BoundingBoxParams box, String tag, Long productId, Integer limit);
+
+    @Operation(
+            summary = "Cluster stores for a map viewport",
+            description = "Groups the active stores inside the bounding box into grid cells sized for the zoom level and returns each cell's centroid and store count, "
+                    + "instead of one pin per store. Cells holding a single store also carry its storeId.",
+            parameters = {
+                    @Parameter(name = "minLatitude", description = "Southern edge latitude", example = "6.40", required = true),
+                    @Parameter(name = "minLongitude", description = "Western edge longitude", example = "3.25", required = true),
+                    @Parameter(name = "maxLatitude", description = "Northern edge latitude", example = "6.70", required = true),
+                    @Parameter(name = "maxLongitude", description = "Eastern edge longitude", example = "3.60", required = true),
+                    @Parameter(name = "zoom", description = "Map zoom level (0-22)", example = "11", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Clusters found.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid bounding box or zoom."),
+                    @ApiResponse(responseCode = "500", description = "Error occurred.")
+            }
+    )
+    ResponseEntity<ApiResponseBody> findStoreClusters(@Parameter(hidden = true) BoundingBoxParams box, int zoom);
+
     @Operation(
             summary = "Search stores by name",
-            description = "Full-text name search using a keyword.",
+            description = "Prefix name search using a keyword, each store comes with its cheapest in-stock products (up to 50 by default). Paginated, page size is capped at 50.",
             parameters = {
-                    @Parameter(name = "storeName", description = "Search keyword", required = true)
+                    @Parameter(name = "storeName", description = "Search keyword (at least 3 characters)", required = true),
+                    @Parameter(name = "page", description = "Page number", required = false),
+                    @Parameter(name = "size", description = "Page size (max 50)", required = false)
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Stores found.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class))),
                     @ApiResponse(responseCode = "500", description = "Error occurred.")
             }
     )
-    ResponseEntity<ApiResponseBody> searchStoresByStoreName(String storeName);
+    ResponseEntity<ApiResponseBody> searchStoresByStoreName(String storeName, int page, int size);
 
     @Operation(
             summary = "Nearby stores with product name",
@@ -175,18 +271,20 @@ public interface StoreDocs {
 
     @Operation(
             summary = "Full-text + nearby search",
-            description = "Combines full-text and geolocation to return relevant nearby stores.",
+            description = "Combines full-text and geolocation to return relevant nearby stores with a product in stock, ranked by a weighted text relevance + distance score. Each store appears once.",
             parameters = {
                     @Parameter(name = "query", description = "Search keyword", required = true),
                     @Parameter(name = "lat", description = "Latitude", required = true),
                     @Parameter(name = "lon", description = "Longitude", required = true),
-                    @Parameter(name = "radiusKm", description = "Radius in kilometers", required = true)
+                    @Parameter(name = "radiusKm", description = "Radius in kilometers", required = true),
+                    @Parameter(name = "page", description = "Page number", required = false),
+                    @Parameter(name = "size", description = "Page size (max 50)", required = false)
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Filtered results.", content = @Content(schema = @Schema(implementation = ApiResponseBody.class)))
             }
     )
-    ResponseEntity<ApiResponseBody> searchNearbyStoresUsingFts(String query, double lat, double lon, double radiusKm);
+    ResponseEntity<ApiResponseBody> searchNearbyStoresUsingFts(String query, double lat, double lon, double radiusKm, int page, int size);
 
     @Operation(
             summary = "Nearby stores with product ID",
@@ -240,7 +338,7 @@ public interface StoreDocs {
                     @Parameter(name = "tags", description = "Set of tags to filter by", required = true),
                     @Parameter(name = "matchAll", description = "Whether to match all tags or any", required = true),
                     @Parameter(name = "page", description = "Page number", required = true),
-                    @Parameter(name = "size", description = "Page size", required = true),
+                    @Parameter(name = "size", description = "Page size (max 50)", required = true),
                     @Parameter(name = "sortBy", description = "Field to sort by", required = false),
                     @Parameter(name = "direction", description = "Sort direction", required = false)
             },
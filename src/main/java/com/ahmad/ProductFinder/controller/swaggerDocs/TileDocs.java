@@ -0,0 +1,30 @@
+package com.ahmad.ProductFinder.controller.swaggerDocs;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+public interface TileDocs {
+
+    @Operation(
+            summary = "Store map tile",
+            description = "Mapbox vector tile (layer 'stores', attributes id and name) with the active stores on tile z/x/y, "
+                    + "optionally only stores with a tag or with a product in stock. Meant for map rendering instead of large nearby searches.",
+            parameters = {
+                    @Parameter(name = "z", description = "Zoom level (0-22)", required = true),
+                    @Parameter(name = "x", description = "Tile column", required = true),
+                    @Parameter(name = "y", description = "Tile row", required = true),
+                    @Parameter(name = "tag", description = "Only stores with this tag"),
+                    @Parameter(name = "productId", description = "Only stores with this product in stock")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "The tile.", content = @Content(mediaType = "application/vnd.mapbox-vector-tile")),
+                    @ApiResponse(responseCode = "204", description = "No stores on this tile."),
+                    @ApiResponse(responseCode = "400", description = "Invalid tile coordinates."),
+                    @ApiResponse(responseCode = "500", description = "Internal server error.")
+            }
+    )
+    ResponseEntity<byte[]> getStoreTile(int z, int x, int y, String tag, Long productId);
+}
@@ -0,0 +1,35 @@
+package com.ahmad.ProductFinder.dtos.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@Schema(
+        name = "BatchNearestStoresRequest",
+        description = "Many origins (e.g. delivery drop-off points) answered in one round trip: the nearest stores to each, optionally only those with a product in stock."
+)
+public record BatchNearestStoresRequestDto(
+        @NotEmpty(message = "At least one origin is required")
+        @Schema(description = "Origins to search from, results come back in the same order (capped by the server)",
+                requiredMode = Schema.RequiredMode.REQUIRED)
+        List<@NotNull @Valid Origin> origins,
+
+        @Schema(description = "Only stores with this product in stock", example = "12")
+        Long productId,
+
+        @Schema(description = "Stores per origin (default 10, capped by the server)", example = "5")
+        Integer limit
+) {
+    public record Origin(
+            @NotNull(message = "Origin latitude is required")
+            @Schema(description = "Latitude", example = "6.5244", requiredMode = Schema.RequiredMode.REQUIRED)
+            Double latitude,
+
+            @NotNull(message = "Origin longitude is required")
+            @Schema(description = "Longitude", example = "3.3792", requiredMode = Schema.RequiredMode.REQUIRED)
+            Double longitude
+    ) {}
+}
@@ -0,0 +1,25 @@
+package com.ahmad.ProductFinder.dtos.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/***
+ * the map viewport: south west (min) and north east (max) corners in WGS84
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BoundingBoxParams {
+    @Schema(description = "Southern edge latitude", example = "6.40", required = true)
+    private double minLatitude;
+
+    @Schema(description = "Western edge longitude", example = "3.25", required = true)
+    private double minLongitude;
+
+    @Schema(description = "Northern edge latitude", example = "6.70", required = true)
+    private double maxLatitude;
+
+    @Schema(description = "Eastern edge longitude", example = "3.60", required = true)
+    private double maxLongitude;
+}
@@ -0,0 +1,14 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import java.util.List;
+
+/***
+ * one entry per requested origin, in request order. An origin with nothing in reach gets an empty stores list
+ * instead of failing the whole batch
+ */
+public record BatchNearestStoresResponseDto(
+        int originCount,
+        int limitPerOrigin,
+        Long productId,
+        List<OriginNearestStoresDto> results
+) {}
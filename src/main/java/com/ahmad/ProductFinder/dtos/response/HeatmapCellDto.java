@@ -0,0 +1,22 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import com.ahmad.ProductFinder.projection.HeatmapCellProjection;
+
+import java.math.BigDecimal;
+
+/***
+ * one geohash cell of a product heatmap: active stores with the product in stock and the cheapest price among them,
+ * latitude / longitude is the cell centre
+ */
+public record HeatmapCellDto(
+        String geohash,
+        long storeCount,
+        BigDecimal minPrice,
+        double latitude,
+        double longitude
+) {
+    public static HeatmapCellDto from(HeatmapCellProjection projection) {
+        return new HeatmapCellDto(projection.getGeohash(), projection.getStore_count(), projection.getMin_price(),
+                projection.getLatitude(), projection.getLongitude());
+    }
+}
@@ -0,0 +1,11 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import java.util.Map;
+
+/***
+ * a page of nearby stores plus, for every tag, how many stores in the whole radius (not just this page) carry it
+ */
+public record NearbyStoreFacetsResponseDto(
+        PagedResponseDto<NearbyStoreResponseDto> stores,
+        Map<String, Long> tagFacets
+) {}
@@ -0,0 +1,13 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import java.util.List;
+
+/***
+ * the nearest stores to one origin of a batch request, originIndex is its position in the request
+ */
+public record OriginNearestStoresDto(
+        int originIndex,
+        double latitude,
+        double longitude,
+        List<NearbyStoreResponseDto> stores
+) {}
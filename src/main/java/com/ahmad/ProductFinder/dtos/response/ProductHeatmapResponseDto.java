@@ -0,0 +1,16 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import java.util.List;
+
+/***
+ * availability of one product inside a geohash cell (empty = the whole world), broken down into cells of
+ * precision characters. truncated = more cells than the cap, ask again with a longer cell or a lower precision
+ */
+public record ProductHeatmapResponseDto(
+        Long productId,
+        String cell,
+        int precision,
+        long totalStores,
+        boolean truncated,
+        List<HeatmapCellDto> cells
+) {}
@@ -0,0 +1,23 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import com.ahmad.ProductFinder.projection.StoreClusterProjection;
+
+/***
+ * one pin on the clustered map: centroid of the stores in a grid cell, storeId is only set when the cell holds a
+ * single store (the FE can show it as a normal pin)
+ */
+public record StoreClusterDto(
+        long storeCount,
+        double latitude,
+        double longitude,
+        Long storeId
+) {
+    public static StoreClusterDto from(StoreClusterProjection projection) {
+        return new StoreClusterDto(
+                projection.getStore_count(),
+                projection.getLatitude(),
+                projection.getLongitude(),
+                projection.getStore_id()
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import java.util.List;
+
+/***
+ * clusters for one viewport + zoom. truncated = there were more cells than the cap, the biggest clusters are kept
+ */
+public record StoreClustersResponseDto(
+        int zoom,
+        double cellSizeInMetres,
+        long totalStores,
+        boolean truncated,
+        List<StoreClusterDto> clusters
+) {}
@@ -1,6 +1,7 @@
 package com.ahmad.ProductFinder.dtos.response;
 
 import com.ahmad.ProductFinder.dtos.entityDto.AddressDto;
+import com.ahmad.ProductFinder.models.Inventory;
 import com.ahmad.ProductFinder.models.Store;
 
 import java.util.List;
@@ -15,7 +16,10 @@ public record StoreWithInventoryDto(
         List<ProductInventoryDto> products
 ) {
 
-    public static StoreWithInventoryDto from(Store store) {
+    /***
+     * @param inStockInventory the store's active, in stock inventory rows (product already fetched)
+     */
+    public static StoreWithInventoryDto from(Store store, List<Inventory> inStockInventory) {
         return new StoreWithInventoryDto(
                 store.getId(),
                 store.getName(),
@@ -23,8 +27,7 @@ public record StoreWithInventoryDto(
                 store.getDescription(),
                 store.getLocation().getY(),
                 store.getLocation().getX(),
-                store.getInventory().stream()
-                        .filter(inv -> inv.getIsActive() && inv.getStockQuantity() > 0)
+                inStockInventory.stream()
                         .map(ProductInventoryDto::from)
                         .toList()
         );
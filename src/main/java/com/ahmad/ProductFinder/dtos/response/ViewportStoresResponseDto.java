@@ -0,0 +1,13 @@
+package com.ahmad.ProductFinder.dtos.response;
+
+import java.util.List;
+
+/***
+ * stores inside a map viewport, closest to its centre first. truncated = the viewport holds more stores than the
+ * cap, the FE should zoom in or switch to clusters
+ */
+public record ViewportStoresResponseDto(
+        List<NearbyStoreResponseDto> stores,
+        int count,
+        boolean truncated
+) {}
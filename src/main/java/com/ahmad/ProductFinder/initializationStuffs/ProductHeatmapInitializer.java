@@ -0,0 +1,21 @@
+package com.ahmad.ProductFinder.initializationStuffs;
+
+import com.ahmad.ProductFinder.service.heatmapService.IProductHeatmapService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+//first start (or a new heatmap.geohash-precision) builds the heatmap aggregate, after that the write paths keep it current
+@Component
+public class ProductHeatmapInitializer implements ApplicationListener<ApplicationReadyEvent> {
+    private final IProductHeatmapService productHeatmapService;
+
+    public ProductHeatmapInitializer(IProductHeatmapService productHeatmapService) {
+        this.productHeatmapService = productHeatmapService;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        productHeatmapService.rebuildIfStale();
+    }
+}
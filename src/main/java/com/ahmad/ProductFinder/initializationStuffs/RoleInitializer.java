@@ -11,9 +11,11 @@ import java.util.Set;
 @Component
 public class RoleInitializer implements ApplicationListener<ApplicationReadyEvent> {
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
-    public RoleInitializer(RoleRepository roleRepository) {
+    public RoleInitializer(RoleRepository roleRepository, RoleRegistry roleRegistry) {
         this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
     }
 
     @Override
@@ -23,6 +25,7 @@ public class RoleInitializer implements ApplicationListener<ApplicationReadyEven
 //        injectIfMissing("STORE_OWNER");
         Set<String> roles = Set.of("USER","ADMIN","STORE_OWNER");
         createDefaultRolesIfNotExist(roles);
+        roleRegistry.load(roleRepository.findAll());
     }
 
 //    public void injectIfMissing(String roleName){
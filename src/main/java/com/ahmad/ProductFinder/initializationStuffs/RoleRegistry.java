@@ -0,0 +1,47 @@
+package com.ahmad.ProductFinder.initializationStuffs;
+
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+import com.ahmad.ProductFinder.models.Role;
+import com.ahmad.ProductFinder.repositories.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/***
+ * role name -> id, filled once by RoleInitializer after the default roles exist. Roles never change at runtime,
+ * so the map is immutable and lookups hand out getReferenceById proxies: attaching a role to a user costs no SQL.
+ * A name that isn't in the map (unknown role, or a request before startup finished) goes to the DB as before.
+ */
+@Slf4j
+@Component
+public class RoleRegistry {
+    private final RoleRepository roleRepository;
+
+    private volatile Map<String, Long> roleIdsByName = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    void load(Collection<Role> roles) {
+        roleIdsByName = roles.stream().collect(Collectors.toUnmodifiableMap(Role::getName, Role::getId));
+        log.info("Role registry loaded: {}", roleIdsByName.keySet());
+    }
+
+    /***
+     * must be called inside a transaction, the returned role is a lazy reference bound to the current session
+     */
+    public Role getRole(String roleName) {
+        Long roleId = roleIdsByName.get(roleName);
+        if (roleId != null) {
+            return roleRepository.getReferenceById(roleId);
+        }
+        return roleRepository.findByName(roleName)
+                .orElseThrow(() -> new ResourceNotFoundException(format("Role with name(s),%s , not found!", roleName)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.ahmad.ProductFinder.initializationStuffs;
+
+import com.ahmad.ProductFinder.service.store.availabilityService.IStoreAvailabilityService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+//fills the store_availability read model on the first start against an existing DB, the write paths keep it current after that
+@Component
+public class StoreAvailabilityInitializer implements ApplicationListener<ApplicationReadyEvent> {
+    private final IStoreAvailabilityService storeAvailabilityService;
+
+    public StoreAvailabilityInitializer(IStoreAvailabilityService storeAvailabilityService) {
+        this.storeAvailabilityService = storeAvailabilityService;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        storeAvailabilityService.rebuildIfEmpty();
+    }
+}
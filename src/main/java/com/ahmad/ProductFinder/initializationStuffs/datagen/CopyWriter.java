@@ -0,0 +1,64 @@
+package com.ahmad.ProductFinder.initializationStuffs.datagen;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/***
+ * streams rows into a COPY ... FROM STDIN (text format) in ~1MB chunks. Values are written as-is: callers only pass
+ * generated values that never contain tabs, newlines or backslashes
+ */
+class CopyWriter implements AutoCloseable {
+    private static final int FLUSH_AT_CHARS = 1 << 20;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_AT_CHARS + 4096);
+    private long rows;
+    private boolean firstColumn = true;
+
+    CopyWriter(CopyManager copyManager, String table, String columns) throws SQLException {
+        this.copyIn = copyManager.copyIn("COPY " + table + " (" + columns + ") FROM STDIN");
+    }
+
+    CopyWriter col(Object value) {
+        if (!firstColumn) {
+            buffer.append('\t');
+        }
+        firstColumn = false;
+        buffer.append(value == null ? "\\N" : value);
+        return this;
+    }
+
+    //price in cents -> "123.45" without going through BigDecimal/String.format
+    CopyWriter money(long cents) {
+        long fraction = cents % 100;
+        return col((cents / 100) + (fraction < 10 ? ".0" : ".") + fraction);
+    }
+
+    void endRow() throws SQLException {
+        buffer.append('\n');
+        firstColumn = true;
+        rows++;
+        if (buffer.length() >= FLUSH_AT_CHARS) {
+            flush();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+        copyIn.endCopy();
+    }
+}
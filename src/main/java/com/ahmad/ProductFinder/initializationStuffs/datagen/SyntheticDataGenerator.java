@@ -0,0 +1,342 @@
+package com.ahmad.ProductFinder.initializationStuffs.datagen;
+
+import com.ahmad.ProductFinder.service.heatmapService.IProductHeatmapService;
+import com.ahmad.ProductFinder.service.store.availabilityService.IStoreAvailabilityService;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/***
+ * Bulk loads a synthetic data set (owners, stores, products, inventory, store tags) through COPY, for benchmarks and
+ * load tests. Only active with the datagen profile, runs once at startup and (by default) shuts the app down after:
+ *
+ *   java -jar app.jar --spring.profiles.active=dev,datagen --datagen.stores=1000000 --datagen.products=100000
+ *
+ * - stores are clustered (gaussian, a few km wide) around real city centres, bigger cities get more stores
+ * - every store stocks datagen.products-per-store distinct products, skewed towards the popular (low) product ids,
+ *   so a few products are everywhere and the long tail is rare, like real inventories
+ * - tags come from the tag table (the data.sql vocabulary), owners get the USER + STORE_OWNER roles
+ * Rows are appended after the current max ids and the id sequences are moved past them, so it can run on a
+ * non-empty DB. Same seed -> same data set. COPY bypasses the services, so derived tables (the product heatmap, the
+ * store_availability read model) are rebuilt at the end.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements ApplicationRunner {
+    private static final String[] CATEGORIES = {"groceries", "drinks", "snacks", "household", "toiletries",
+            "baby care", "frozen food", "bakery", "spices", "electronics"};
+    private static final String[] PRODUCT_WORDS = {"rice", "beans", "garri", "palm oil", "groundnut oil", "tomato paste",
+            "noodles", "spaghetti", "semovita", "yam flour", "milk", "sugar", "tea", "cocoa drink", "malt drink",
+            "soft drink", "water", "bread", "biscuits", "plantain chips", "chin chin", "soap", "detergent", "toothpaste",
+            "tissue", "diapers", "baby food", "chicken", "fish", "pepper", "curry", "thyme", "seasoning", "salt",
+            "phone charger", "batteries", "bulb", "extension box"};
+    private static final String[] BRANDS = {"Golden", "Royal", "Mama's", "Sunny", "Premium", "Everyday", "Naija", "Fresh"};
+    private static final String[] STORE_KINDS = {"Supermarket", "Mini Mart", "Provisions", "Stores", "Kitchen", "Market Stall"};
+
+    private final DataSource dataSource;
+    private final ApplicationContext applicationContext;
+    private final PasswordEncoder passwordEncoder;
+    private final IProductHeatmapService productHeatmapService;
+    private final IStoreAvailabilityService storeAvailabilityService;
+
+    @Value("${datagen.stores:10000}")
+    private int storeCount;
+    @Value("${datagen.products:5000}")
+    private int productCount;
+    @Value("${datagen.products-per-store:50}")
+    private int productsPerStore;
+    @Value("${datagen.stores-per-owner:5}")
+    private int storesPerOwner;
+    @Value("${datagen.seed:42}")
+    private long seed;
+    @Value("${datagen.owner-password:password}")
+    private String ownerPassword;
+    @Value("${datagen.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    public SyntheticDataGenerator(DataSource dataSource, ApplicationContext applicationContext, PasswordEncoder passwordEncoder,
+                                  IProductHeatmapService productHeatmapService, IStoreAvailabilityService storeAvailabilityService) {
+        this.dataSource = dataSource;
+        this.applicationContext = applicationContext;
+        this.passwordEncoder = passwordEncoder;
+        this.productHeatmapService = productHeatmapService;
+        this.storeAvailabilityService = storeAvailabilityService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (productsPerStore > productCount) {
+            throw new IllegalStateException("datagen.products-per-store can't be bigger than datagen.products");
+        }
+        int ownerCount = Math.max(1, (storeCount + storesPerOwner - 1) / storesPerOwner);
+        log.info("Generating {} owners, {} stores, {} products, {} inventory rows (seed {})",
+                ownerCount, storeCount, productCount, (long) storeCount * productsPerStore, seed);
+
+        long started = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL synchronous_commit = off");
+            }
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            Map<String, Long> roleIds = roleIds(connection);
+            List<Long> tagIds = longs(connection, "SELECT id FROM tag ORDER BY id");
+            long firstOwnerId = maxId(connection, "users") + 1;
+            long firstStoreId = maxId(connection, "store") + 1;
+            long firstProductId = maxId(connection, "product") + 1;
+            long firstInventoryId = maxId(connection, "inventory") + 1;
+
+            SplittableRandom random = new SplittableRandom(seed);
+            LocalDateTime now = LocalDateTime.now();
+
+            copyOwners(copyManager, roleIds, firstOwnerId, ownerCount, now);
+            copyProducts(copyManager, random.split(), firstProductId, now);
+            copyStores(copyManager, random.split(), tagIds, firstStoreId, firstOwnerId, ownerCount, now);
+            copyInventory(copyManager, random.split(), firstInventoryId, firstStoreId, firstProductId, now);
+
+            try (Statement statement = connection.createStatement()) {
+                //pooled sequences (allocationSize 100), same rule as tag_seq in data.sql
+                for (String table : List.of("store", "product", "inventory")) {
+                    statement.execute(String.format(
+                            "SELECT setval('%1$s_seq', GREATEST((SELECT last_value FROM %1$s_seq), (SELECT MAX(id) FROM %1$s) + 100))", table));
+                }
+                statement.execute("SELECT setval(pg_get_serial_sequence('users', 'id'), (SELECT MAX(id) FROM users))");
+            }
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("ANALYZE users, user_roles, store, store_tag, product, inventory");
+            }
+        }
+        productHeatmapService.rebuild();
+        storeAvailabilityService.rebuild();
+        log.info("Synthetic data set loaded in {} s", (System.currentTimeMillis() - started) / 1000);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void copyOwners(CopyManager copyManager, Map<String, Long> roleIds, long firstId, int count, LocalDateTime now) throws SQLException {
+        //hashed once, every generated owner logs in with datagen.owner-password (load tests use it)
+        String passwordHash = passwordEncoder.encode(ownerPassword);
+        try (CopyWriter users = new CopyWriter(copyManager, "users",
+                "id, email, first_name, lastname, username, password, account_verified, login_disabled, phone_number, active, created_at, updated_at")) {
+            for (long id = firstId; id < firstId + count; id++) {
+                users.col(id).col("owner" + id + "@datagen.lpf.com").col("Owner").col("No" + id).col("owner" + id)
+                        .col(passwordHash).col(true).col(false).col("+2348" + String.format("%09d", id))
+                        .col(true).col(now).col(now);
+                users.endRow();
+            }
+        }
+        try (CopyWriter userRoles = new CopyWriter(copyManager, "user_roles", "user_id, role_id")) {
+            for (long id = firstId; id < firstId + count; id++) {
+                for (String role : List.of("USER", "STORE_OWNER")) {
+                    userRoles.col(id).col(roleIds.get(role));
+                    userRoles.endRow();
+                }
+            }
+        }
+        log.info("Loaded {} owners", count);
+    }
+
+    private void copyProducts(CopyManager copyManager, SplittableRandom random, long firstId, LocalDateTime now) throws SQLException {
+        try (CopyWriter products = new CopyWriter(copyManager, "product",
+                "id, name, description, category, price, created_at, updated_at, is_available")) {
+            for (long id = firstId; id < firstId + productCount; id++) {
+                String word = PRODUCT_WORDS[random.nextInt(PRODUCT_WORDS.length)];
+                String name = BRANDS[random.nextInt(BRANDS.length)] + " " + word + " " + (id % 997);
+                products.col(id).col(name).col("Synthetic " + word + ", pack of " + (1 + random.nextInt(12)))
+                        .col(CATEGORIES[random.nextInt(CATEGORIES.length)]).money(100 + random.nextInt(5_000_000))
+                        .col(now).col(now).col(true);
+                products.endRow();
+            }
+        }
+        log.info("Loaded {} products", productCount);
+    }
+
+    private void copyStores(CopyManager copyManager, SplittableRandom random, List<Long> tagIds, long firstId,
+                            long firstOwnerId, int ownerCount, LocalDateTime now) throws SQLException {
+        double totalWeight = 0;
+        for (City city : City.values()) {
+            totalWeight += city.weight;
+        }
+
+        try (CopyWriter stores = new CopyWriter(copyManager, "store",
+                "id, name, street, city, state, country, postal_code, description, created_at, updated_at, is_verified, is_active, owner_id, latitude, longitude, location")) {
+            for (long id = firstId; id < firstId + storeCount; id++) {
+                City city = pickCity(random, totalWeight);
+                //~1 degree of latitude is 111km
+                double latitude = city.latitude + gaussian(random) * city.spreadKm / 111.0;
+                double longitude = city.longitude + gaussian(random) * city.spreadKm / (111.0 * Math.cos(Math.toRadians(city.latitude)));
+                long ownerId = firstOwnerId + (id - firstId) % ownerCount;
+
+                stores.col(id).col(BRANDS[random.nextInt(BRANDS.length)] + " " + STORE_KINDS[random.nextInt(STORE_KINDS.length)] + " " + id)
+                        .col((1 + random.nextInt(200)) + " Synthetic Street").col(city.city).col(city.state).col(city.country)
+                        .col(String.valueOf(100_000 + random.nextInt(900_000))).col("Synthetic store in " + city.city)
+                        .col(now).col(now).col(true).col(random.nextInt(100) < 97) //a few disabled stores, like prod
+                        .col(ownerId).col(latitude).col(longitude)
+                        .col("SRID=4326;POINT(" + longitude + " " + latitude + ")");
+                stores.endRow();
+            }
+            log.info("Loaded {} stores", storeCount);
+        }
+
+        //separate COPY, a connection can only have one COPY in progress
+        if (tagIds.isEmpty()) {
+            return;
+        }
+        try (CopyWriter storeTags = new CopyWriter(copyManager, "store_tag", "store_id, tag_id")) {
+            for (long id = firstId; id < firstId + storeCount; id++) {
+                int tagCount = random.nextInt(Math.min(5, tagIds.size() + 1));
+                int start = random.nextInt(tagIds.size());
+                for (int i = 0; i < tagCount; i++) {
+                    storeTags.col(id).col(tagIds.get((start + i) % tagIds.size()));
+                    storeTags.endRow();
+                }
+            }
+            log.info("Loaded {} store tags", storeTags.rows());
+        }
+    }
+
+    private void copyInventory(CopyManager copyManager, SplittableRandom random, long firstId, long firstStoreId,
+                               long firstProductId, LocalDateTime now) throws SQLException {
+        long id = firstId;
+        int[] picked = new int[productsPerStore];
+        try (CopyWriter inventory = new CopyWriter(copyManager, "inventory",
+                "id, store_id, product_id, price, stock_quantity, is_active, created_at, updated_at")) {
+            for (long storeId = firstStoreId; storeId < firstStoreId + storeCount; storeId++) {
+                int distinct = 0;
+                while (distinct < productsPerStore) {
+                    //u^2 skews towards low (popular) product ids
+                    double u = random.nextDouble();
+                    int product = (int) (u * u * productCount);
+                    if (!contains(picked, distinct, product)) {
+                        picked[distinct++] = product;
+                    }
+                }
+                for (int i = 0; i < distinct; i++) {
+                    //~15% out of stock so the stock filters have something to do
+                    int stock = random.nextInt(100) < 15 ? 0 : 1 + random.nextInt(500);
+                    inventory.col(id++).col(storeId).col(firstProductId + picked[i]).money(100 + random.nextInt(5_000_000))
+                            .col(stock).col(true).col(now).col(now);
+                    inventory.endRow();
+                }
+                if (inventory.rows() % 1_000_000 < productsPerStore) {
+                    log.info("Inventory: {} rows", inventory.rows());
+                }
+            }
+            log.info("Loaded {} inventory rows", inventory.rows());
+        }
+    }
+
+    //linear scan is fine, products-per-store is small
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static City pickCity(SplittableRandom random, double totalWeight) {
+        double target = random.nextDouble() * totalWeight;
+        for (City city : City.values()) {
+            target -= city.weight;
+            if (target <= 0) {
+                return city;
+            }
+        }
+        return City.LAGOS;
+    }
+
+    //Box-Muller
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static Map<String, Long> roleIds(Connection connection) throws SQLException {
+        Map<String, Long> roles = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, name FROM role")) {
+            while (rs.next()) {
+                roles.put(rs.getString("name"), rs.getLong("id"));
+            }
+        }
+        if (!roles.containsKey("USER") || !roles.containsKey("STORE_OWNER")) {
+            throw new IllegalStateException("USER/STORE_OWNER roles missing, start the app once without datagen first");
+        }
+        return roles;
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        List<Long> max = longs(connection, "SELECT COALESCE(MAX(id), 0) FROM " + table);
+        return max.getFirst();
+    }
+
+    private static List<Long> longs(Connection connection, String sql) throws SQLException {
+        List<Long> values = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getLong(1));
+            }
+        }
+        return values;
+    }
+
+    private enum City {
+        LAGOS("Lagos", "Lagos", "Nigeria", 6.5244, 3.3792, 12, 30),
+        ABUJA("Abuja", "FCT", "Nigeria", 9.0765, 7.3986, 10, 12),
+        KANO("Kano", "Kano", "Nigeria", 12.0022, 8.5920, 8, 10),
+        IBADAN("Ibadan", "Oyo", "Nigeria", 7.3775, 3.9470, 9, 9),
+        PORT_HARCOURT("Port Harcourt", "Rivers", "Nigeria", 4.8156, 7.0498, 8, 8),
+        BENIN_CITY("Benin City", "Edo", "Nigeria", 6.3350, 5.6037, 6, 5),
+        ENUGU("Enugu", "Enugu", "Nigeria", 6.5244, 7.5086, 5, 4),
+        KADUNA("Kaduna", "Kaduna", "Nigeria", 10.5105, 7.4165, 6, 4),
+        ACCRA("Accra", "Greater Accra", "Ghana", 5.6037, -0.1870, 9, 10),
+        NAIROBI("Nairobi", "Nairobi", "Kenya", -1.2921, 36.8219, 9, 8);
+
+        private final String city;
+        private final String state;
+        private final String country;
+        private final double latitude;
+        private final double longitude;
+        private final double spreadKm;
+        private final double weight;
+
+        City(String city, String state, String country, double latitude, double longitude, double spreadKm, double weight) {
+            this.city = city;
+            this.state = state;
+            this.country = country;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.spreadKm = spreadKm;
+            this.weight = weight;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.ahmad.ProductFinder.mailing;
 
-import com.sun.xml.messaging.saaj.packaging.mime.MessagingException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
@@ -25,18 +28,25 @@ public class EmailService implements IEmailService {
         this.templateEngine = templateEngine;
     }
 
+    //SMTP round trips take seconds, keep them off the request thread. Failures are logged by the async exception handler
+    @Async
+    @Timed(value = "external.smtp", extraTags = {"operation", "send"}, histogram = true) //runs inside the async task, so this is the real SMTP time
     @Override
-    public void sendEmail(AbstractEmailContext email) throws MessagingException, jakarta.mail.MessagingException {
+    public void sendEmail(AbstractEmailContext email) {
         MimeMessage message = emailSender.createMimeMessage();
-        MimeMessageHelper messageHelper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED, StandardCharsets.UTF_8.name());
         Context context = new Context();
         context.setVariables(email.getContext());
         String emailContent = templateEngine.process(email.getTemplateLocation(),context);
 
-        messageHelper.setTo(email.getTo());
-        messageHelper.setFrom(sendersMail);
-        messageHelper.setSubject(email.getSubject());
-        messageHelper.setText(emailContent,true);
+        try {
+            MimeMessageHelper messageHelper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED, StandardCharsets.UTF_8.name());
+            messageHelper.setTo(email.getTo());
+            messageHelper.setFrom(sendersMail);
+            messageHelper.setSubject(email.getSubject());
+            messageHelper.setText(emailContent,true);
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Could not build the '" + email.getSubject() + "' mail to " + email.getTo(), e);
+        }
 
         emailSender.send(message);
 
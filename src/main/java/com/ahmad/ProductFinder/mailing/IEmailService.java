@@ -1,7 +1,6 @@
 package com.ahmad.ProductFinder.mailing;
 
-import com.sun.xml.messaging.saaj.packaging.mime.MessagingException;
-
 public interface IEmailService {
-    void sendEmail(final AbstractEmailContext email) throws MessagingException, jakarta.mail.MessagingException;
+    //async: returns before the mail is sent, failures end up in the async exception handler (AsyncConfig)
+    void sendEmail(final AbstractEmailContext email);
 }
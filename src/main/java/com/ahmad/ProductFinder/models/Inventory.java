@@ -1,5 +1,7 @@
 package com.ahmad.ProductFinder.models;
 
+import com.ahmad.ProductFinder.service.search.SearchIndexEntityListener;
+import com.ahmad.ProductFinder.service.store.tileService.StoreTileCacheEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners({SearchIndexEntityListener.class, StoreTileCacheEntityListener.class})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -0,0 +1,34 @@
+package com.ahmad.ProductFinder.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/***
+ * heatmap aggregate: how many active stores have a product in stock inside one geohash cell, and the cheapest price
+ * among them. Only cells with at least one store exist. Maintained by ProductHeatmapService from the inventory / store
+ * / product write paths, never written by hand
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_availability_cell")
+public class ProductAvailabilityCell {
+    @EmbeddedId
+    private ProductAvailabilityCellId id;
+
+    @Column(nullable = false)
+    private Integer storeCount;
+
+    @Column(nullable = false)
+    private BigDecimal minPrice;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.ahmad.ProductFinder.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ProductAvailabilityCellId implements Serializable {
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    //"C" collation so the primary key orders geohashes bytewise and a prefix becomes a plain index range scan
+    @Column(name = "geohash", nullable = false, columnDefinition = "varchar(12) COLLATE \"C\"")
+    private String geohash;
+}
@@ -1,11 +1,14 @@
 package com.ahmad.ProductFinder.models;
 
 import com.ahmad.ProductFinder.embedded.Address;
+import com.ahmad.ProductFinder.service.search.SearchIndexEntityListener;
+import com.ahmad.ProductFinder.service.store.tileService.StoreTileCacheEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.locationtech.jts.geom.Point;
@@ -20,6 +23,7 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
+@EntityListeners({SearchIndexEntityListener.class, StoreTileCacheEntityListener.class})
 @Builder
 public class Store {
     @Id
@@ -76,7 +80,9 @@ public class Store {
     @OneToMany(mappedBy = "store", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Inventory> inventory = new ArrayList<>();
 
-    @ManyToMany(fetch = FetchType.EAGER , cascade = {CascadeType.DETACH , CascadeType.PERSIST , CascadeType.MERGE , CascadeType.REFRESH})
+    //LAZY so write paths (disable, delete...) don't drag tags along, pages of stores load their tags in batches
+    @ManyToMany(fetch = FetchType.LAZY , cascade = {CascadeType.DETACH , CascadeType.PERSIST , CascadeType.MERGE , CascadeType.REFRESH})
+    @BatchSize(size = 50)
     @JoinTable(name = "store_tag", joinColumns = @JoinColumn(name = "store_id" , referencedColumnName = "id"),
             inverseJoinColumns = @JoinColumn(name ="tag_id" , referencedColumnName = "id")
     )
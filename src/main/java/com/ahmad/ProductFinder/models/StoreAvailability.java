@@ -0,0 +1,44 @@
+package com.ahmad.ProductFinder.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.locationtech.jts.geom.Point;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/***
+ * read model for the "product near me" searches: one row per inventory row with everything those searches filter on
+ * (store location, product search document, price, in stock) so they don't join store / inventory / product.
+ * in_stock = store active + inventory active + stock > 0. Indexes live in data.sql. Written only by
+ * StoreAvailabilityService, never through this entity
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "store_availability")
+public class StoreAvailability {
+    @EmbeddedId
+    private StoreAvailabilityId id;
+
+    //geography so ST_DWithin in metres goes straight through the GiST index, no cast per row
+    @Column(nullable = false, columnDefinition = "geography(Point,4326)")
+    private Point location;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private Boolean inStock;
+
+    //copy of product.searchable, mapped only so ddl-auto creates the column before data.sql indexes it
+    @Column(columnDefinition = "tsvector", insertable = false, updatable = false)
+    private String productSearchable;
+
+    private LocalDateTime updatedAt;
+}
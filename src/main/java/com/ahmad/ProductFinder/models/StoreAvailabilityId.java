@@ -0,0 +1,25 @@
+package com.ahmad.ProductFinder.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class StoreAvailabilityId implements Serializable {
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "store_id", nullable = false)
+    private Long storeId;
+}
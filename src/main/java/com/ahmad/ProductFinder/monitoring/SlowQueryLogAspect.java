@@ -0,0 +1,38 @@
+package com.ahmad.ProductFinder.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/***
+ * logs every repository call slower than monitoring.slow-query.threshold-ms, with its arguments, so a slow ST_DWithin/FTS
+ * search can be replayed with the exact lat/lon/radius/query. All repositories, not just StoreRepository: the product near
+ * me searches live in StoreAvailabilityRepository and the heatmap in ProductAvailabilityCellRepository.
+ * The timings themselves are in the spring.data.repository.invocations metric, this is only the "which call" part
+ */
+@Slf4j
+@Aspect
+@Component
+public class SlowQueryLogAspect {
+    @Value("${monitoring.slow-query.threshold-ms:500}")
+    private long thresholdMs;
+
+    @Around("execution(* com.ahmad.ProductFinder.repositories..*.*(..))")
+    public Object logIfSlow(ProceedingJoinPoint joinPoint) throws Throwable {
+        long started = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long tookMs = (System.nanoTime() - started) / 1_000_000;
+            if (tookMs >= thresholdMs) {
+                log.warn("Slow query: {}.{} took {} ms, args: {}", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                        joinPoint.getSignature().getName(), tookMs, Arrays.toString(joinPoint.getArgs()));
+            }
+        }
+    }
+}
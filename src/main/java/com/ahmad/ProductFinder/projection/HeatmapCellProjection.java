@@ -0,0 +1,18 @@
+package com.ahmad.ProductFinder.projection;
+
+import java.math.BigDecimal;
+
+public interface HeatmapCellProjection {
+    String getGeohash();
+
+    Long getStore_count();
+
+    BigDecimal getMin_price();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    //stores in every cell of the range, not just the returned ones
+    Long getTotal_stores();
+}
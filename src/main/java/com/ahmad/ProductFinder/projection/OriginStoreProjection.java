@@ -0,0 +1,8 @@
+package com.ahmad.ProductFinder.projection;
+
+/***
+ * a store row of a multi-origin query, tagged with the (1 based) position of the origin it belongs to
+ */
+public interface OriginStoreProjection extends StoreProjection {
+    Long getOrigin_index();
+}
@@ -0,0 +1,15 @@
+package com.ahmad.ProductFinder.projection;
+
+public interface StoreClusterProjection {
+    Long getStore_count();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    //only set for a cluster of one store
+    Long getStore_id();
+
+    //stores in every cell of the viewport, not just the returned ones
+    Long getTotal_stores();
+}
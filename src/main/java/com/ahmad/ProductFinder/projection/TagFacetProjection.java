@@ -0,0 +1,7 @@
+package com.ahmad.ProductFinder.projection;
+
+public interface TagFacetProjection {
+    String getTag();
+
+    Long getStore_count();
+}
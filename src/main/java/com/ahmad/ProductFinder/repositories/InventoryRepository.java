@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,5 +35,34 @@ public interface InventoryRepository extends JpaRepository<Inventory , Long> {
 
     List<Inventory> findAllByIsActiveTrue();
 
+    //in stock inventory (with the product) of a whole page of stores in one go, instead of walking store.getInventory() per store
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE i.store.id IN :storeIds AND i.isActive = true AND i.stockQuantity > 0")
+    List<Inventory> findInStockWithProductByStoreIdIn(@Param("storeIds") Collection<Long> storeIds);
+
+    //ids of at most :maxPerStore in stock inventory rows per store (cheapest first), for lists shown under each store
+    @Query(value = """
+            SELECT i.id
+            FROM unnest(CAST(:storeIds AS bigint[])) AS sid(store_id)
+            CROSS JOIN LATERAL (
+                SELECT inv.id
+                FROM inventory inv
+                WHERE inv.store_id = sid.store_id
+                  AND inv.is_active
+                  AND inv.stock_quantity > 0
+                ORDER BY inv.price, inv.id
+                LIMIT :maxPerStore
+            ) i
+            """, nativeQuery = true)
+    List<Long> findInStockIdsByStoreIdIn(@Param("storeIds") Long[] storeIds, @Param("maxPerStore") int maxPerStore);
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product WHERE i.id IN :ids")
+    List<Inventory> findWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT i.store.id FROM Inventory i WHERE i.product.id = :productId")
+    List<Long> findStoreIdsByProductId(@Param("productId") Long productId);
+
+    @Query("SELECT DISTINCT i.product.id FROM Inventory i WHERE i.store.id = :storeId")
+    List<Long> findProductIdsByStoreId(@Param("storeId") Long storeId);
+
     List<Inventory> findByProduct_IdAndIsActiveIsTrueAndStockQuantityGreaterThan(Long productId , int minStockQuantity);
 }
@@ -0,0 +1,114 @@
+package com.ahmad.ProductFinder.repositories;
+
+import com.ahmad.ProductFinder.models.ProductAvailabilityCell;
+import com.ahmad.ProductFinder.models.ProductAvailabilityCellId;
+import com.ahmad.ProductFinder.projection.HeatmapCellProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductAvailabilityCellRepository extends JpaRepository<ProductAvailabilityCell, ProductAvailabilityCellId> {
+    //native writes below declare their query space, otherwise hibernate evicts every second level cache region on each one
+
+    /* cells of one product between two geohashes (a prefix and the prefix + '{', see ProductHeatmapService), rolled up to
+    :precision characters. Walks the primary key range only, so the cost follows the number of stored cells in the
+    range, not the inventory / store tables. latitude / longitude = centre of the rolled up cell. total_stores (same on
+    every row) is summed over all rolled up cells before the LIMIT, so it still counts the stores of the dropped cells
+     */
+    @Query(value = """
+            SELECT
+                g.geohash AS geohash,
+                g.store_count AS store_count,
+                g.min_price AS min_price,
+                ST_Y(ST_PointFromGeoHash(g.geohash)) AS latitude,
+                ST_X(ST_PointFromGeoHash(g.geohash)) AS longitude,
+                g.total_stores AS total_stores
+            FROM (
+                SELECT
+                    left(c.geohash, :precision) AS geohash,
+                    SUM(c.store_count) AS store_count,
+                    MIN(c.min_price) AS min_price,
+                    CAST(SUM(SUM(c.store_count)) OVER () AS bigint) AS total_stores
+                FROM product_availability_cell c
+                WHERE c.product_id = :productId
+                  AND c.geohash >= :fromCell
+                  AND c.geohash < :toCell
+                GROUP BY 1
+            ) g
+            ORDER BY g.geohash
+            LIMIT :maxCells
+            """, nativeQuery = true)
+    List<HeatmapCellProjection> findHeatmapCells(@Param("productId") Long productId,
+                                                 @Param("fromCell") String fromCell,
+                                                 @Param("toCell") String toCell,
+                                                 @Param("precision") int precision,
+                                                 @Param("maxCells") int maxCells);
+
+    //serializes recounts of the same cell: held until commit, so whoever gets it next sees the previous recount's writes
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('product_availability_cell'), hashtext(:cell))", nativeQuery = true)
+    Integer lockCell(@Param("cell") String cell);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_availability_cell"))
+    @Query(value = "DELETE FROM product_availability_cell WHERE geohash = :cell AND product_id IN (:productIds)", nativeQuery = true)
+    int deleteCells(@Param("cell") String cell, @Param("productIds") Collection<Long> productIds);
+
+    /* recount one cell for some products from the source tables: the && on the cell's box goes through idx_store_location,
+    the exact ST_GeoHash match drops stores sitting on the box edge that belong to the neighbour cell
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_availability_cell"))
+    @Query(value = """
+            INSERT INTO product_availability_cell (product_id, geohash, store_count, min_price, updated_at)
+            SELECT i.product_id, :cell, COUNT(*), MIN(i.price), now()
+            FROM store s
+            JOIN inventory i ON i.store_id = s.id
+            WHERE s.location && ST_GeomFromGeoHash(:cell)
+              AND ST_GeoHash(s.location, length(:cell)) = :cell
+              AND s.is_active = true
+              AND i.is_active = true
+              AND i.stock_quantity > 0
+              AND i.product_id IN (:productIds)
+            GROUP BY i.product_id
+            """, nativeQuery = true)
+    int insertCells(@Param("cell") String cell, @Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_availability_cell"))
+    @Query(value = "DELETE FROM product_availability_cell WHERE product_id = :productId", nativeQuery = true)
+    int deleteByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_availability_cell"))
+    @Query(value = "TRUNCATE product_availability_cell", nativeQuery = true)
+    void truncate();
+
+    //full build, one pass over inventory joined to store
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_availability_cell"))
+    @Query(value = """
+            INSERT INTO product_availability_cell (product_id, geohash, store_count, min_price, updated_at)
+            SELECT i.product_id, ST_GeoHash(s.location, :precision), COUNT(*), MIN(i.price), now()
+            FROM inventory i
+            JOIN store s ON s.id = i.store_id
+            WHERE s.is_active = true
+              AND s.location IS NOT NULL
+              AND i.is_active = true
+              AND i.stock_quantity > 0
+            GROUP BY 1, 2
+            """, nativeQuery = true)
+    int insertAllCells(@Param("precision") int precision);
+
+    //precision the table was built with, null when it is empty
+    @Query(value = "SELECT length(geohash) FROM product_availability_cell LIMIT 1", nativeQuery = true)
+    Integer findStoredPrecision();
+}
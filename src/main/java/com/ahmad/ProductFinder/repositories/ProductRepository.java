@@ -1,7 +1,11 @@
 package com.ahmad.ProductFinder.repositories;
 
 import com.ahmad.ProductFinder.models.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,5 +22,20 @@ public interface ProductRepository extends JpaRepository<Product,Long> {
 
     Optional<Product> findByNameIgnoreCase(String productName);
 
+    //tsQuery is built by ProductSearchQuery (prefix terms), served by the GIN index on product.searchable
+    @Query(value = """
+            SELECT p.*
+            FROM product p
+            WHERE p.searchable @@ to_tsquery('english', :tsQuery)
+            ORDER BY ts_rank(p.searchable, to_tsquery('english', :tsQuery)) DESC, p.id ASC
+            """,
+            countQuery = """
+            SELECT COUNT(*)
+            FROM product p
+            WHERE p.searchable @@ to_tsquery('english', :tsQuery)
+            """,
+            nativeQuery = true)
+    Page<Product> fullTextSearch(@Param("tsQuery") String tsQuery, Pageable pageable);
+
 
 }
@@ -1,12 +1,17 @@
 package com.ahmad.ProductFinder.repositories;
 
 import com.ahmad.ProductFinder.models.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Collection;
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role,Long> {
+    //query cache -> role id, entity cache -> the row: no SQL at all once warm (registration, store creation)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
     boolean existsByName(String name);
 }
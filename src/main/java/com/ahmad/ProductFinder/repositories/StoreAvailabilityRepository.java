@@ -0,0 +1,181 @@
+package com.ahmad.ProductFinder.repositories;
+
+import com.ahmad.ProductFinder.models.StoreAvailability;
+import com.ahmad.ProductFinder.models.StoreAvailabilityId;
+import com.ahmad.ProductFinder.projection.StoreProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StoreAvailabilityRepository extends JpaRepository<StoreAvailability, StoreAvailabilityId> {
+    //native writes below declare their query space, otherwise hibernate evicts every second level cache region on each one
+    //the read model rows of some inventory, recomputed from the source tables (scope added by each query below)
+    String SELECT_FROM_SOURCE = """
+            INSERT INTO store_availability (store_id, product_id, location, product_searchable, price, in_stock, updated_at)
+            SELECT
+                i.store_id,
+                i.product_id,
+                CAST(s.location AS geography),
+                p.searchable,
+                i.price,
+                (s.is_active AND i.is_active AND i.stock_quantity > 0),
+                now()
+            FROM inventory i
+            JOIN store s ON s.id = i.store_id
+            JOIN product p ON p.id = i.product_id
+            WHERE s.location IS NOT NULL
+            """;
+    String UPSERT = """
+            ON CONFLICT (store_id, product_id) DO UPDATE SET
+                location = EXCLUDED.location,
+                product_searchable = EXCLUDED.product_searchable,
+                price = EXCLUDED.price,
+                in_stock = EXCLUDED.in_stock,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    /* FOR SHARE on the store / product row: a store move or product rename running at the same time holds that row
+    until it commits, so we wait and read the committed location / search document instead of overwriting the row with
+    the old one. The other way round their UPDATE waits for our share lock, and their own re-sync then sees our commit
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = SELECT_FROM_SOURCE + "  AND i.store_id = :storeId AND i.product_id = :productId\nFOR SHARE OF s, p\n" + UPSERT, nativeQuery = true)
+    int upsertInventory(@Param("storeId") Long storeId, @Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = SELECT_FROM_SOURCE + "  AND i.store_id = :storeId\n" + UPSERT, nativeQuery = true)
+    int upsertStore(@Param("storeId") Long storeId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = SELECT_FROM_SOURCE + "  AND i.product_id = :productId\n" + UPSERT, nativeQuery = true)
+    int upsertProduct(@Param("productId") Long productId);
+
+    //rows whose inventory row is gone (inventory, store or product deleted)
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = """
+            DELETE FROM store_availability a
+            WHERE a.store_id = :storeId
+              AND (CAST(:productId AS bigint) IS NULL OR a.product_id = CAST(:productId AS bigint))
+              AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.store_id = a.store_id AND i.product_id = a.product_id)
+            """, nativeQuery = true)
+    int deleteOrphansOfStore(@Param("storeId") Long storeId, @Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = """
+            DELETE FROM store_availability a
+            WHERE a.product_id = :productId
+              AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.store_id = a.store_id AND i.product_id = a.product_id)
+            """, nativeQuery = true)
+    int deleteOrphansOfProduct(@Param("productId") Long productId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = "TRUNCATE store_availability", nativeQuery = true)
+    void truncate();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "store_availability"))
+    @Query(value = SELECT_FROM_SOURCE, nativeQuery = true)
+    int insertAll();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM store_availability)", nativeQuery = true)
+    boolean hasRows();
+
+    /* stores with the product in stock within the radius: one GiST (product_id, location) scan over in stock rows,
+    store is only joined by primary key for the columns shown to the user
+     */
+    @Query(value = """
+            SELECT
+              s.id   AS id,
+              s.name    AS name,
+              s.street  AS street,
+              s.city  AS city,
+              s.state  AS state,
+              s.country AS country,
+              s.postal_code  AS postal_code,
+              s.latitude AS latitude,
+              s.longitude    AS longitude,
+              m.distance_in_metres AS distance_in_metres
+            FROM (
+              SELECT
+                a.store_id,
+                ST_Distance(a.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography) AS distance_in_metres
+              FROM store_availability a
+              WHERE a.product_id = :productId
+                AND a.in_stock
+                AND ST_DWithin(a.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography, :radiusInMeters)
+            ) m
+            JOIN store s ON s.id = m.store_id
+            ORDER BY m.distance_in_metres ASC
+            """,
+            nativeQuery = true)
+    List<StoreProjection> findNearbyStoresWithProductId(
+            @Param("lat") double latitude,
+            @Param("lon") double longitude,
+            @Param("productId") Long productId,
+            @Param("radiusInMeters") double radiusInMetres
+    );
+
+    /* stores within the radius with at least one in stock product matching the product search: the filtering is a
+    GIN (product_searchable) / GiST (location) bitmap over in stock rows of the read model, grouped to one row per store.
+    store comes first in the FROM so the pageable's sort lands on its columns
+     */
+    @Query(value = """
+            SELECT
+              s.id AS id,
+              s.name AS name,
+              s.description AS description,
+              s.is_active AS is_active,
+              s.latitude AS latitude,
+              s.longitude AS longitude,
+              s.street AS street,
+              s.city AS city,
+              s.state AS state,
+              s.country AS country,
+              s.postal_code AS postal_code,
+              s.location AS location,
+              m.distance_in_metres AS distance_in_metres
+            FROM store s
+            JOIN (
+              SELECT
+                a.store_id,
+                MIN(ST_Distance(a.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography)) AS distance_in_metres
+              FROM store_availability a
+              WHERE a.in_stock
+                AND a.product_searchable @@ to_tsquery('english', :tsQuery)
+                AND ST_DWithin(a.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography, :radiusInMetres)
+              GROUP BY a.store_id
+            ) m ON m.store_id = s.id
+            ORDER BY m.distance_in_metres ASC
+            """,
+            countQuery = """
+            SELECT COUNT(DISTINCT a.store_id)
+            FROM store_availability a
+            WHERE a.in_stock
+              AND a.product_searchable @@ to_tsquery('english', :tsQuery)
+              AND ST_DWithin(a.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography, :radiusInMetres)
+            """,
+            nativeQuery = true)
+    Page<StoreProjection> searchNearbyStoresWithProductName(
+            @Param("lat") double latitude,
+            @Param("lon") double longitude,
+            @Param("tsQuery") String productTsQuery,
+            @Param("radiusInMetres") double radiusInMetres,
+            Pageable pageable
+    );
+}
@@ -1,10 +1,14 @@
 package com.ahmad.ProductFinder.repositories;
 
 import com.ahmad.ProductFinder.models.Store;
+import com.ahmad.ProductFinder.projection.OriginStoreProjection;
+import com.ahmad.ProductFinder.projection.StoreClusterProjection;
 import com.ahmad.ProductFinder.projection.StoreProjection;
+import com.ahmad.ProductFinder.projection.TagFacetProjection;
 import org.locationtech.jts.geom.Point;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -21,6 +25,8 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     //    Long findStoreById(Long storeId);
     boolean existsById(Long storeId);
 
+    //single store reads return tags (StoreResponseDto), so fetch them in the same select
+    @EntityGraph(attributePaths = "tags")
     Optional<Store> findByIdAndIsActiveTrue(Long storeId);
 
     Page<Store> findByIsActiveTrue(Pageable pageable);
@@ -97,6 +103,253 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
             Pageable pageable
     );              //user can specify the range
 
+    //one grouped pass over the same radius as getNearbyStores, gives the tag facet counts for the whole result set
+    @Query(value = """
+            SELECT
+                t.name AS tag,
+                COUNT(DISTINCT s.id) AS store_count
+            FROM store s
+            JOIN store_tag st ON s.id = st.store_id
+            JOIN tag t ON st.tag_id = t.id
+            WHERE s.is_active = true
+                AND ST_DWithin(
+                                s.location::geography,
+                                ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
+                                :radius
+                )
+            GROUP BY t.name
+            ORDER BY store_count DESC, t.name ASC
+            """, nativeQuery = true)
+    List<TagFacetProjection> countNearbyStoresPerTag(
+            @Param("lat") double latitude,
+            @Param("lon") double longitude,
+            @Param("radius") double radiusInMetres
+    );
+
+    /* nearest stores without a radius: the inner query walks idx_store_location in <-> order (planar degrees) and stops
+    after :candidates rows, however sparse the area is. Only those candidates get the exact geodesic distance and are
+    re-ranked by it; the caller over-fetches candidates because planar degrees overstate east-west distances
+     */
+    @Query(value = """
+            SELECT
+                s.id AS id,
+                s.name AS name,
+                s.description AS description,
+                s.is_active AS is_active,
+                s.latitude AS latitude,
+                s.longitude AS longitude,
+                s.street AS street,
+                s.city AS city,
+                s.state AS state,
+                s.country AS country,
+                s.postal_code AS postal_code,
+                ST_Distance(
+                    s.location::geography,
+                    ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography
+                ) AS distance_in_metres,
+                ARRAY(
+                    SELECT t.name FROM store_tag st
+                    JOIN tag t ON t.id = st.tag_id
+                    WHERE st.store_id = s.id
+                ) AS tags
+            FROM (
+                SELECT c.*
+                FROM store c
+                WHERE c.is_active = true
+                  AND (CAST(:productId AS bigint) IS NULL OR EXISTS (
+                        SELECT 1 FROM inventory i
+                        WHERE i.store_id = c.id
+                          AND i.product_id = CAST(:productId AS bigint)
+                          AND i.is_active = true
+                          AND i.stock_quantity > 0
+                  ))
+                ORDER BY c.location <-> ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)
+                LIMIT :candidates
+            ) s
+            ORDER BY distance_in_metres ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<StoreProjection> findNearestStores(@Param("lat") double latitude,
+                                            @Param("lon") double longitude,
+                                            @Param("productId") Long productId,
+                                            @Param("candidates") int candidates,
+                                            @Param("limit") int limit);
+
+    /* findNearestStores for many origins in one statement: the origins come in as two parallel float8[] literals
+    ('{6.52,6.60}' / '{3.37,3.41}'), unnest numbers them and every origin runs the same index walk + geodesic re-rank
+    through a LATERAL join. One round trip and one plan for the whole batch instead of one request per origin.
+    Rows come back grouped by origin_index (1 based, request order), nearest first
+     */
+    @Query(value = """
+            SELECT
+                o.idx AS origin_index,
+                n.id AS id,
+                n.name AS name,
+                n.description AS description,
+                n.is_active AS is_active,
+                n.latitude AS latitude,
+                n.longitude AS longitude,
+                n.street AS street,
+                n.city AS city,
+                n.state AS state,
+                n.country AS country,
+                n.postal_code AS postal_code,
+                n.distance_in_metres AS distance_in_metres,
+                ARRAY(
+                    SELECT t.name FROM store_tag st
+                    JOIN tag t ON t.id = st.tag_id
+                    WHERE st.store_id = n.id
+                ) AS tags
+            FROM unnest(CAST(:latitudes AS float8[]), CAST(:longitudes AS float8[])) WITH ORDINALITY AS o(lat, lon, idx)
+            CROSS JOIN LATERAL (
+                SELECT
+                    s.*,
+                    ST_Distance(
+                        s.location::geography,
+                        ST_SetSRID(ST_MakePoint(o.lon, o.lat), 4326)::geography
+                    ) AS distance_in_metres
+                FROM (
+                    SELECT c.*
+                    FROM store c
+                    WHERE c.is_active = true
+                      AND (CAST(:productId AS bigint) IS NULL OR EXISTS (
+                            SELECT 1 FROM inventory i
+                            WHERE i.store_id = c.id
+                              AND i.product_id = CAST(:productId AS bigint)
+                              AND i.is_active = true
+                              AND i.stock_quantity > 0
+                      ))
+                    ORDER BY c.location <-> ST_SetSRID(ST_MakePoint(o.lon, o.lat), 4326)
+                    LIMIT :candidates
+                ) s
+                ORDER BY distance_in_metres ASC
+                LIMIT :limit
+            ) n
+            ORDER BY o.idx, n.distance_in_metres
+            """, nativeQuery = true)
+    List<OriginStoreProjection> findNearestStoresForOrigins(@Param("latitudes") String latitudes,
+                                                            @Param("longitudes") String longitudes,
+                                                            @Param("productId") Long productId,
+                                                            @Param("candidates") int candidates,
+                                                            @Param("limit") int limit);
+
+    /* stores inside the map viewport: a plain geometry && against the envelope (idx_store_location), no geography
+    casts. Ordered by distance to the viewport centre (index assisted <->), so when :maxResults cuts the list the
+    stores in the middle of the screen are the ones kept. tag / product filters are optional (null = no filter)
+     */
+    @Query(value = """
+            SELECT
+                s.id AS id,
+                s.name AS name,
+                s.description AS description,
+                s.is_active AS is_active,
+                s.latitude AS latitude,
+                s.longitude AS longitude,
+                s.street AS street,
+                s.city AS city,
+                s.state AS state,
+                s.country AS country,
+                s.postal_code AS postal_code,
+                ARRAY(
+                    SELECT t.name FROM store_tag st
+                    JOIN tag t ON t.id = st.tag_id
+                    WHERE st.store_id = s.id
+                ) AS tags
+            FROM store s
+            WHERE s.is_active = true
+              AND s.location && ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326)
+              AND (CAST(:tag AS text) IS NULL OR EXISTS (
+                    SELECT 1 FROM store_tag st
+                    JOIN tag t ON t.id = st.tag_id
+                    WHERE st.store_id = s.id
+                      AND LOWER(t.name) = LOWER(CAST(:tag AS text))
+              ))
+              AND (CAST(:productId AS bigint) IS NULL OR EXISTS (
+                    SELECT 1 FROM inventory i
+                    WHERE i.store_id = s.id
+                      AND i.product_id = CAST(:productId AS bigint)
+                      AND i.is_active = true
+                      AND i.stock_quantity > 0
+              ))
+            ORDER BY s.location <-> ST_SetSRID(ST_MakePoint((:minLon + :maxLon) / 2, (:minLat + :maxLat) / 2), 4326)
+            LIMIT :maxResults
+            """, nativeQuery = true)
+    List<StoreProjection> findStoresInBoundingBox(@Param("minLat") double minLatitude,
+                                                  @Param("minLon") double minLongitude,
+                                                  @Param("maxLat") double maxLatitude,
+                                                  @Param("maxLon") double maxLongitude,
+                                                  @Param("tag") String tag,
+                                                  @Param("productId") Long productId,
+                                                  @Param("maxResults") int maxResults);
+
+    /* grid clustering for the zoomed out map: active stores in the viewport snapped to a square grid in web mercator
+    metres (so cells look square on screen), one row per non empty cell with its centroid and count. Biggest cells
+    first so the :maxClusters cap drops the smallest ones. total_stores (same on every row) is summed over all cells
+    before the LIMIT, so it still counts the stores of the dropped cells
+     */
+    @Query(value = """
+            SELECT
+                COUNT(*) AS store_count,
+                AVG(s.latitude) AS latitude,
+                AVG(s.longitude) AS longitude,
+                CASE WHEN COUNT(*) = 1 THEN MIN(s.id) END AS store_id,
+                CAST(SUM(COUNT(*)) OVER () AS bigint) AS total_stores
+            FROM store s
+            WHERE s.is_active = true
+              AND s.location && ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326)
+            GROUP BY ST_SnapToGrid(ST_Transform(s.location, 3857), :cellSize)
+            ORDER BY store_count DESC
+            LIMIT :maxClusters
+            """, nativeQuery = true)
+    List<StoreClusterProjection> clusterStoresInBoundingBox(@Param("minLat") double minLatitude,
+                                                            @Param("minLon") double minLongitude,
+                                                            @Param("maxLat") double maxLatitude,
+                                                            @Param("maxLon") double maxLongitude,
+                                                            @Param("cellSize") double cellSizeInMetres,
+                                                            @Param("maxClusters") int maxClusters);
+
+    /* one mapbox vector tile (layer "stores", id + name per point) for tile z/x/y. The envelope is widened by the
+    64/4096 render buffer so pins on a tile edge are drawn by both neighbours, the && on it uses idx_store_location.
+    tag / product filters are optional (null = no filter), a product only counts while it's in stock
+     */
+    @Query(value = """
+            WITH bounds AS (
+                SELECT ST_TileEnvelope(:z, :x, :y) AS tile,
+                       ST_Transform(ST_TileEnvelope(:z, :x, :y, margin => 0.015625), 4326) AS filter
+            ),
+            features AS (
+                SELECT
+                    s.id AS id,
+                    s.name AS name,
+                    ST_AsMVTGeom(ST_Transform(s.location, 3857), bounds.tile, 4096, 64, true) AS geom
+                FROM store s, bounds
+                WHERE s.is_active = true
+                  AND s.location && bounds.filter
+                  AND (CAST(:tag AS text) IS NULL OR EXISTS (
+                        SELECT 1 FROM store_tag st
+                        JOIN tag t ON t.id = st.tag_id
+                        WHERE st.store_id = s.id
+                          AND LOWER(t.name) = LOWER(CAST(:tag AS text))
+                  ))
+                  AND (CAST(:productId AS bigint) IS NULL OR EXISTS (
+                        SELECT 1 FROM inventory i
+                        WHERE i.store_id = s.id
+                          AND i.product_id = CAST(:productId AS bigint)
+                          AND i.is_active = true
+                          AND i.stock_quantity > 0
+                  ))
+                LIMIT :maxFeatures
+            )
+            SELECT ST_AsMVT(features.*, 'stores', 4096, 'geom', 'id')
+            FROM features
+            """, nativeQuery = true)
+    byte[] findStoreTile(@Param("z") int z,
+                         @Param("x") int x,
+                         @Param("y") int y,
+                         @Param("tag") String tag,
+                         @Param("productId") Long productId,
+                         @Param("maxFeatures") int maxFeatures);
+
     /* The user searches the storr by name I am retrieving lat and lon from the store entity also
     i get that in the dto also , send it to FE, FE uses the longitude and latitude to plot the location
     on map, THERE SHOULD BE A BUTTON LIKE SHOW LOCATION ON MAP
@@ -113,93 +366,17 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
 //                AND i.stockQuantity>0
 //            """
 //    )
+    //prefix match only, so it can use the lower(name) text_pattern_ops index created in data.sql.
+    //:storeName comes escaped with '!' (StoreQueryService), so % _ \ typed by the user are plain characters
     @Query(value = """
-            SELECT DISTINCT s
+            SELECT s
             FROM Store s
             WHERE s.isActive=true
-            AND LOWER(s.name) LIKE LOWER(CONCAT(:storeName,'%') )
+            AND LOWER(s.name) LIKE CONCAT(LOWER(:storeName),'%') ESCAPE '!'
             """
     )
-    List<Store> searchStoreByName(@Param("storeName") String storeName);
-
-
-    @Query(value = """
-            SELECT
-              s.id AS id,
-              s.name AS name,
-              s.description AS description,
-              s.is_active AS is_active,
-              s.latitude AS latitude,
-              s.longitude AS longitude,
-              s.street AS street,
-              s.city AS city,
-              s.state AS state,
-              s.country AS country,
-              s.postal_code AS postal_code,
-              s.location AS location,
-              ST_Distance(
-                CAST(s.location AS geography),
-                ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography
-              ) AS distance_in_metres
-            FROM store s
-            JOIN inventory i ON i.store_id = s.id
-            JOIN product p   ON p.id = i.product_id
-            WHERE s.is_active = true
-              AND i.is_active = true
-              AND i.stock_quantity >  0
-              AND LOWER(p.name) LIKE  LOWER(CONCAT('%', :productName, '%'))
-              AND ST_DWithin(
-                    CAST(s.location AS geography),
-                    ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
-                    :radiusInMetres
-              )
-            ORDER BY distance_in_metres ASC
-            """,
-            nativeQuery = true)
-    Page<StoreProjection> searchNearbyStoresWithProductName(
-            @Param("lat") double latitude,
-            @Param("lon") double longitude,
-            @Param("productName") String productName,
-            @Param("radiusInMetres") double radiusInMetres,
-            Pageable pageable
-    );
-
+    Page<Store> searchStoreByName(@Param("storeName") String storeName, Pageable pageable);
 
-    @Query(value = """
-            SELECT
-              s.id   AS id,
-              s.name    AS name,
-              s.street  AS street,
-              s.city  AS city,
-              s.state  AS state,
-              s.country AS country,
-              s.postal_code  AS postal_code,
-              s.latitude AS latitude,
-              s.longitude    AS longitude,
-              ST_Distance(
-                CAST(s.location AS geography),
-                ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography
-              )  AS distance_in_metres
-            FROM store s
-            JOIN inventory i ON i.store_id    = s.id
-            WHERE s.is_active     = true
-              AND i.is_active     = true
-              AND i.stock_quantity > 0
-              AND i.product_id    = :productId
-              AND ST_DWithin(
-                    CAST(s.location AS geography),
-                    ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
-                    :radiusInMeters
-              )
-            ORDER BY distance_in_metres ASC
-            """,
-            nativeQuery = true)
-    Optional<List<StoreProjection>> findNearbyStoresWithProductId(
-            @Param("lat") double latitude,
-            @Param("lon") double longitude,
-            @Param("productId") Long productId,
-            @Param("radiusInMeters") double radiusInMetres
-    );
 
     @Query(value = """
             SELECT
@@ -226,48 +403,76 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
             nativeQuery = true)
     List<StoreProjection> searchByText(@Param("query") String query);
 
-@Query(value = """
-            SELECT
-              s.id,
-              s.name,
-              s.description,
-              s.is_active            AS isActive,
-              s.latitude,
-              s.longitude,
-              s.street,
-              s.city,
-              s.state,
-              s.country,
-              s.postal_code,
-              ts_rank(
-                s.searchable,
-                plainto_tsquery('english', :query)
-              )                       AS textRank,
-              ST_Distance(
-                s.location::geography,
-                ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography
-              )                       AS distance_in_metres
+    /* hybrid ranking: score = textWeight * text rank + distanceWeight * 1 / (1 + distance / decay)
+    the distance part is 1 at the origin and 0.5 at :decayInMetres away. EXISTS instead of joining inventory/product
+    so every store comes back once, no matter how many of its products are in stock; the in stock check reads the
+    store_availability read model. Latency at scale isn't measured yet: datagen (--datagen.stores=1000000) + the k6
+    nearby_fts scenario (loadtest/run-suite.sh) is the run to do before trusting this plan on a big table
+     */
+    @Query(value = """
+            SELECT ranked.*
+            FROM (
+              SELECT
+                s.id                AS id,
+                s.name              AS name,
+                s.description       AS description,
+                s.is_active         AS is_active,
+                s.latitude          AS latitude,
+                s.longitude         AS longitude,
+                s.street            AS street,
+                s.city              AS city,
+                s.state             AS state,
+                s.country           AS country,
+                s.postal_code       AS postal_code,
+                ts_rank(s.searchable, plainto_tsquery('english', :query), 32) AS text_rank,
+                ST_Distance(
+                  s.location::geography,
+                  ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography
+                )                   AS distance_in_metres
+              FROM store s
+              WHERE s.is_active
+                AND s.searchable @@ plainto_tsquery('english', :query)
+                AND ST_DWithin(
+                      s.location::geography,
+                      ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
+                      :distance
+                )
+                AND EXISTS (
+                      SELECT 1 FROM store_availability a
+                      WHERE a.store_id = s.id
+                        AND a.in_stock
+                )
+            ) ranked
+            ORDER BY (:textWeight * ranked.text_rank
+                      + :distanceWeight / (1 + ranked.distance_in_metres / :decayInMetres)) DESC,
+                     ranked.distance_in_metres ASC
+            """,
+            countQuery = """
+            SELECT COUNT(*)
             FROM store s
-            JOIN inventory i ON i.store_id = s.id
-            JOIN product p ON p.id = i.product_id
             WHERE s.is_active
-              AND i.is_active
-              AND i.stock_quantity > 0
               AND s.searchable @@ plainto_tsquery('english', :query)
               AND ST_DWithin(
                     s.location::geography,
                     ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
                     :distance
               )
-            ORDER BY textRank DESC, distance_in_metres ASC
-            LIMIT 10
+              AND EXISTS (
+                    SELECT 1 FROM store_availability a
+                    WHERE a.store_id = s.id
+                      AND a.in_stock
+              )
             """,
             nativeQuery = true)
-    List<StoreProjection> searchNearbyStoresByFullTextSearchAndProductInStock(
+    Page<StoreProjection> searchNearbyStoresByFullTextSearchAndProductInStock(
             @Param("query") String query,
             @Param("lat") double latitude,
             @Param("lon") double longitude,
-            @Param("distance") double distanceInMetres
+            @Param("distance") double distanceInMetres,
+            @Param("textWeight") double textWeight,
+            @Param("distanceWeight") double distanceWeight,
+            @Param("decayInMetres") double decayInMetres,
+            Pageable pageable
     );
 
 }
@@ -2,8 +2,8 @@ package com.ahmad.ProductFinder.repositories;
 
 import com.ahmad.ProductFinder.models.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -15,13 +15,35 @@ public interface TagRepository extends JpaRepository<Tag , Long> {
     Optional<Tag> findByName(String name);
     List<Tag> findAllByNameIn(Collection<String> names);
 
-//    //I AM CASTING NAMES TO ARRAY COZ UNNEST EXPECT AN ARRAY BECAUSE HIBERNATE IS CONFUSED
-//    @Modifying
-//    @Query(value = """
-//            INSERT INTO tag(name)
-//            SELECT unnest(CAST(:names AS VARCHAR[]))
-//            ON CONFLICT(name)
-//            DO NOTHING
-//            """, nativeQuery = true)
-//    void bulkInsertIgnoreExistingTags(List<String> names);
+    //used to warm up the in-memory tag dictionary, each row is [store_id, tag_id, store name]
+    @Query(value = "SELECT st.store_id, st.tag_id, s.name FROM store_tag st JOIN store s ON s.id = st.store_id", nativeQuery = true)
+    List<Object[]> findAllStoreTagRows();
+
+    @Query(value = "SELECT st.store_id FROM store_tag st WHERE st.tag_id = :tagId", nativeQuery = true)
+    List<Long> findStoreIdsByTagId(@Param("tagId") Long tagId);
+
+    //I AM CASTING NAMES TO ARRAY COZ UNNEST EXPECT AN ARRAY BECAUSE HIBERNATE IS CONFUSED
+    /* ids[i] goes with names[i], the ids come from hibernate's pooled generator (TagService), not a nextval per row.
+    names that already exist are filtered out before the insert, so they aren't rewritten (DO NOTHING instead of DO UPDATE)
+    and come back from the plain select. A name another transaction inserts at the same time is skipped by ON CONFLICT
+    but isn't visible to this statement's select either, TagService re-reads those
+     */
+    @Query(value = """
+            WITH input AS (
+                SELECT i.id, i.name
+                FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS VARCHAR[])) AS i(id, name)
+            ),
+            inserted AS (
+                INSERT INTO tag(id, name)
+                SELECT i.id, i.name
+                FROM input i
+                WHERE NOT EXISTS (SELECT 1 FROM tag t WHERE t.name = i.name)
+                ON CONFLICT(name) DO NOTHING
+                RETURNING id, name
+            )
+            SELECT id, name FROM inserted
+            UNION ALL
+            SELECT t.id, t.name FROM tag t JOIN input i ON i.name = t.name
+            """, nativeQuery = true)
+    List<Tag> upsertAllByName(@Param("ids") Long[] ids, @Param("names") String[] names);
 }
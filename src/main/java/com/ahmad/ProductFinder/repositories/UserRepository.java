@@ -1,6 +1,7 @@
 package com.ahmad.ProductFinder.repositories;
 
 import com.ahmad.ProductFinder.models.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +12,7 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User,Long> {
 //     User findByUsername(String username);
 
+     @EntityGraph(attributePaths = "roles")
      Optional<User> findByIdAndActiveTrue(Long userId);
 
      boolean existsByEmail(String email);
@@ -21,6 +23,8 @@ public interface UserRepository extends JpaRepository<User,Long> {
 
      List<User> findAllByActiveTrue();
 
+     //roles are LAZY, this one is hit by the JWT filter (outside any session) so the roles come with it
+     @EntityGraph(attributePaths = "roles")
      User findByUsernameAndActiveTrue(String username);
 
      boolean existsByUsernameAndActiveTrue(String username);
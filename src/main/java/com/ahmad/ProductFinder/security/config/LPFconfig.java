@@ -4,6 +4,7 @@ import com.ahmad.ProductFinder.security.jwt.JWTAuthTokenFilter;
 import com.ahmad.ProductFinder.security.jwt.JwtAuthEntryPoint;
 import com.ahmad.ProductFinder.security.jwt.JwtUtils;
 import com.ahmad.ProductFinder.security.user.LPFUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -32,11 +33,13 @@ public class LPFconfig {
     private final LPFUserDetailsService lpfUserDetailsService;
     private final JwtUtils jwtUtils;
     private final JwtAuthEntryPoint authEntryPoint;
+    private final MeterRegistry meterRegistry;
 
-    public LPFconfig(LPFUserDetailsService lpfUserDetailsService, JwtUtils jwtUtils, JwtAuthEntryPoint authEntryPoint) {
+    public LPFconfig(LPFUserDetailsService lpfUserDetailsService, JwtUtils jwtUtils, JwtAuthEntryPoint authEntryPoint, MeterRegistry meterRegistry) {
         this.lpfUserDetailsService = lpfUserDetailsService;
         this.jwtUtils = jwtUtils;
         this.authEntryPoint = authEntryPoint;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -46,7 +49,7 @@ public class LPFconfig {
 
     @Bean
     public JWTAuthTokenFilter authTokenFilter() {
-        return new JWTAuthTokenFilter(jwtUtils, lpfUserDetailsService);
+        return new JWTAuthTokenFilter(jwtUtils, lpfUserDetailsService, meterRegistry);
     }
 
     @Bean
@@ -3,6 +3,8 @@ package com.ahmad.ProductFinder.security.jwt;
 import com.ahmad.ProductFinder.security.user.LPFUserDetails;
 import com.ahmad.ProductFinder.security.user.LPFUserDetailsService;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,10 +20,12 @@ import java.io.IOException;
 public class JWTAuthTokenFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final LPFUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
 
-    public JWTAuthTokenFilter(JwtUtils jwtUtils, LPFUserDetailsService userDetailsService) {
+    public JWTAuthTokenFilter(JwtUtils jwtUtils, LPFUserDetailsService userDetailsService, MeterRegistry meterRegistry) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry;
     }
 
 
@@ -38,9 +42,13 @@ public class JWTAuthTokenFilter extends OncePerRequestFilter {
          * 7. forward to security context and put it there
          */
 
+        //times only the token work (parse, validate, user lookup), not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
         try {
             String jwtToken = parseJwt(request);
             if (StringUtils.hasText(jwtToken)) {
+                outcome = "rejected";
                 jwtUtils.validateToken(jwtToken);
 
                 String username = jwtUtils.extractUsernameFromToken(jwtToken);
@@ -50,6 +58,7 @@ public class JWTAuthTokenFilter extends OncePerRequestFilter {
                 if (jwtUtils.isTokenValid((LPFUserDetails) userDetails, jwtToken)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = "authenticated";
                 }
             }
         } catch (JwtException e) {
@@ -58,6 +67,12 @@ public class JWTAuthTokenFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Error occurred while processing JWT: " + e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("security.jwt.filter")
+                    .description("JWT authentication filter, token work only")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
 
         filterChain.doFilter(request, response);
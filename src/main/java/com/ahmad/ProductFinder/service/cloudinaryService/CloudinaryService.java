@@ -5,6 +5,7 @@ import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.CloudinaryExce
 import com.cloudinary.Cloudinary;
 import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ public class CloudinaryService implements ICloudinaryService {
     @Resource
     private Cloudinary cloudinary;
 
+    @Timed(value = "external.cloudinary", extraTags = {"operation", "upload"}, histogram = true)
     @Override
     public CloudinaryResponseDto uploadFileToCloudinary(MultipartFile file, String folderName) {
         log.info("Uploading file to Cloudinary. Filename: {}, Folder: {}", file.getOriginalFilename(), folderName);
@@ -68,6 +70,7 @@ public class CloudinaryService implements ICloudinaryService {
         }
     }
 
+    @Timed(value = "external.cloudinary", extraTags = {"operation", "delete"}, histogram = true)
     @Override
     public void deleteFileUsingPublicId(String publicId) {
         log.info("Attempting to delete file from Cloudinary. Public ID: {}", publicId);
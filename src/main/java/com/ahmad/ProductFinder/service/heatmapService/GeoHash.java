@@ -0,0 +1,58 @@
+package com.ahmad.ProductFinder.service.heatmapService;
+
+/***
+ * geohash encoding, same cells as PostGIS ST_GeoHash, so the app can tell which cell a store falls in (e.g. before
+ * its location changes) without asking the DB
+ */
+final class GeoHash {
+    static final String ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+    static final int MAX_PRECISION = 12;
+
+    private GeoHash() {
+    }
+
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true; //bits alternate longitude, latitude, starting with longitude
+        int bit = 0;
+        int index = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = index * 2 + 1;
+                    minLon = mid;
+                } else {
+                    index = index * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = index * 2 + 1;
+                    minLat = mid;
+                } else {
+                    index = index * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(ALPHABET.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    static boolean isValid(String hash) {
+        for (int i = 0; i < hash.length(); i++) {
+            if (ALPHABET.indexOf(hash.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ahmad.ProductFinder.service.heatmapService;
+
+import com.ahmad.ProductFinder.dtos.response.ProductHeatmapResponseDto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IProductHeatmapService {
+    ProductHeatmapResponseDto getProductHeatmap(Long productId, String cell, Integer precision);
+
+    void refreshCells(Collection<Long> productIds, Double latitude, Double longitude);
+
+    void refreshCells(Collection<Long> productIds, Collection<String> cells);
+
+    String cellOf(Double latitude, Double longitude);
+
+    List<Long> findStoreProductIds(Long storeId);
+
+    void removeProduct(Long productId);
+
+    void rebuild();
+
+    void rebuildIfStale();
+}
@@ -0,0 +1,155 @@
+package com.ahmad.ProductFinder.service.heatmapService;
+
+import com.ahmad.ProductFinder.dtos.response.HeatmapCellDto;
+import com.ahmad.ProductFinder.dtos.response.ProductHeatmapResponseDto;
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+import com.ahmad.ProductFinder.projection.HeatmapCellProjection;
+import com.ahmad.ProductFinder.repositories.InventoryRepository;
+import com.ahmad.ProductFinder.repositories.ProductAvailabilityCellRepository;
+import com.ahmad.ProductFinder.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import static java.lang.String.format;
+
+/***
+ * Product availability heatmaps served from product_availability_cell (store count + min price per product and
+ * geohash cell at heatmap.geohash-precision) instead of scanning inventory joined to store per request.
+ * Kept up to date incrementally: every inventory / store write recounts only the cells it touched, in the writer's
+ * transaction, so the aggregate commits or rolls back together with the change. Recounting (not +1/-1) keeps min
+ * price right when the cheapest store goes away. Built from scratch on startup when empty or built with another precision.
+ */
+@Slf4j
+@Service
+public class ProductHeatmapService implements IProductHeatmapService {
+    //geohash characters above the stored cells are all 'z' or below, '{' is the next byte in the "C" collation
+    private static final String RANGE_END = "{";
+    private static final int DEFAULT_LEVELS_BELOW_CELL = 2;
+
+    private final ProductAvailabilityCellRepository cellRepository;
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+
+    @Value("${heatmap.geohash-precision:6}")
+    private int storedPrecision;
+    @Value("${heatmap.max-cells:5000}")
+    private int maxCells;
+
+    public ProductHeatmapService(ProductAvailabilityCellRepository cellRepository, ProductRepository productRepository,
+                                 InventoryRepository inventoryRepository) {
+        this.cellRepository = cellRepository;
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductHeatmapResponseDto getProductHeatmap(Long productId, String cell, Integer precision) {
+        String prefix = cell == null ? "" : cell.trim().toLowerCase(Locale.ROOT);
+        if (prefix.length() > storedPrecision || !GeoHash.isValid(prefix)) {
+            throw new IllegalArgumentException(format("Cell must be a geohash of at most %d characters", storedPrecision));
+        }
+        int resultPrecision = precision == null ? Math.min(prefix.length() + DEFAULT_LEVELS_BELOW_CELL, storedPrecision) : precision;
+        if (resultPrecision < Math.max(1, prefix.length()) || resultPrecision > storedPrecision) {
+            throw new IllegalArgumentException(format("Precision must be between %d and %d", Math.max(1, prefix.length()), storedPrecision));
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("No product found with ID : " + productId);
+        }
+
+        //one extra row tells us whether the cap cut anything off
+        List<HeatmapCellProjection> rows = cellRepository.findHeatmapCells(productId, prefix, prefix + RANGE_END, resultPrecision, maxCells + 1);
+        //counted by the query over every cell, the rows we get back are already capped
+        long totalStores = rows.isEmpty() ? 0 : rows.get(0).getTotal_stores();
+        List<HeatmapCellDto> cells = rows.stream()
+                .map(HeatmapCellDto::from)
+                .toList();
+        boolean truncated = cells.size() > maxCells;
+        if (truncated) {
+            cells = cells.subList(0, maxCells);
+        }
+        log.info("Heatmap for product {} in cell '{}' at precision {}: {} cell(s), {} store(s), truncated={}",
+                productId, prefix, resultPrecision, cells.size(), totalStores, truncated);
+
+        return new ProductHeatmapResponseDto(productId, prefix, resultPrecision, totalStores, truncated, cells);
+    }
+
+    @Override
+    @Transactional
+    public void refreshCells(Collection<Long> productIds, Double latitude, Double longitude) {
+        String cell = cellOf(latitude, longitude);
+        if (cell != null) {
+            refreshCells(productIds, List.of(cell));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void refreshCells(Collection<Long> productIds, Collection<String> cells) {
+        if (productIds.isEmpty() || cells.isEmpty()) {
+            return;
+        }
+        //the caller's inventory / store changes are still pending in the session, the recount has to see them
+        cellRepository.flush();
+        //sorted so two writers touching the same cells always lock them in the same order
+        for (String cell : new TreeSet<>(cells.stream().filter(Objects::nonNull).toList())) {
+            cellRepository.lockCell(cell);
+            cellRepository.deleteCells(cell, productIds);
+            int written = cellRepository.insertCells(cell, productIds);
+            log.debug("Recounted heatmap cell {} for {} product(s): {} non empty", cell, productIds.size(), written);
+        }
+    }
+
+    @Override
+    public String cellOf(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return GeoHash.encode(latitude, longitude, storedPrecision);
+    }
+
+    //every product a store carries, in stock or not: a store change can move any of them in or out of a cell
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findStoreProductIds(Long storeId) {
+        return inventoryRepository.findProductIdsByStoreId(storeId);
+    }
+
+    @Override
+    @Transactional
+    public void removeProduct(Long productId) {
+        int removed = cellRepository.deleteByProductId(productId);
+        log.info("Removed {} heatmap cell(s) of product {}", removed, productId);
+    }
+
+    @Override
+    @Transactional
+    public void rebuild() {
+        if (storedPrecision < 1 || storedPrecision > GeoHash.MAX_PRECISION) {
+            throw new IllegalStateException(format("heatmap.geohash-precision must be between 1 and %d", GeoHash.MAX_PRECISION));
+        }
+        long started = System.currentTimeMillis();
+        cellRepository.truncate();
+        int cells = cellRepository.insertAllCells(storedPrecision);
+        log.info("Product heatmap rebuilt at precision {}: {} cell(s) in {} ms", storedPrecision, cells, System.currentTimeMillis() - started);
+    }
+
+    @Override
+    @Transactional
+    public void rebuildIfStale() {
+        Integer builtWith = cellRepository.findStoredPrecision();
+        if (builtWith == null || builtWith != storedPrecision) {
+            log.info("Product heatmap is {}, rebuilding", builtWith == null ? "empty" : "at precision " + builtWith);
+            rebuild();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ahmad.ProductFinder.service.imageService;
 
+import com.ahmad.ProductFinder.configuration.CacheNames;
 import com.ahmad.ProductFinder.dtos.request.UpdateImageRequestDto;
 import com.ahmad.ProductFinder.dtos.response.CloudinaryResponseDto;
 import com.ahmad.ProductFinder.dtos.response.ImageResponseDto;
@@ -11,6 +12,8 @@ import com.ahmad.ProductFinder.repositories.ImageRepository;
 import com.ahmad.ProductFinder.repositories.ProductRepository;
 import com.ahmad.ProductFinder.service.cloudinaryService.CloudinaryService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +38,7 @@ public class ImageService implements IImageService {
 
     @Override
     @PreAuthorize("hasRole('STORE_OWNER')")
+    @CacheEvict(cacheNames = CacheNames.PRODUCT_IMAGES, key = "#productId")
     public String uploadImageToCloudinary(Long productId, MultipartFile file, String altText) {
         log.info("Uploading image for Product ID: {}, FileName: {}", productId, file.getOriginalFilename());
         String folderName="product-finder";
@@ -65,6 +69,7 @@ public class ImageService implements IImageService {
     @Transactional
     @Override
     @PreAuthorize("hasRole('STORE_OWNER')")
+    @CacheEvict(cacheNames = CacheNames.PRODUCT_IMAGES, allEntries = true) //only the public id is known up front
     public void deleteImageUsingPublicId(String publicId) {
         log.info("Deleting image from Cloudinary and database. Public ID: {}", publicId);
         Image image = imageRepository.findByPublicId(publicId).orElseThrow(()-> new ResourceNotFoundException("Image not found!"));
@@ -84,6 +89,7 @@ public class ImageService implements IImageService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCT_IMAGES, key = "#productId")
     public List<ImageResponseDto> getImagesByProductId(Long productId) {
         log.debug("Fetching images for product ID: {}", productId);
         var product = productRepository.findById(productId)
@@ -109,6 +115,7 @@ public class ImageService implements IImageService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheNames.PRODUCT_IMAGES, allEntries = true) //the image may move to another product
     public ImageResponseDto updateImageDetails(Long imageId, UpdateImageRequestDto request) {
         log.info("Updating image metadata. Image ID: {}", imageId);
         Image image = imageRepository.findById(imageId)
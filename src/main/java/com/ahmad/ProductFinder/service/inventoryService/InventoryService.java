@@ -13,9 +13,12 @@ import com.ahmad.ProductFinder.models.Store;
 import com.ahmad.ProductFinder.repositories.InventoryRepository;
 import com.ahmad.ProductFinder.repositories.ProductRepository;
 import com.ahmad.ProductFinder.repositories.StoreRepository;
+import com.ahmad.ProductFinder.service.heatmapService.IProductHeatmapService;
+import com.ahmad.ProductFinder.service.store.availabilityService.IStoreAvailabilityService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,14 +32,21 @@ public class InventoryService implements IInventoryService {
     private final InventoryRepository inventoryRepository;
     private final StoreRepository storeRepository;
     private final ProductRepository productRepository;
+    private final IProductHeatmapService productHeatmapService;
+    private final IStoreAvailabilityService storeAvailabilityService;
 
-    public InventoryService(InventoryRepository inventoryRepository, StoreRepository storeRepository, ProductRepository productRepository) {
+    public InventoryService(InventoryRepository inventoryRepository, StoreRepository storeRepository, ProductRepository productRepository,
+                            IProductHeatmapService productHeatmapService, IStoreAvailabilityService storeAvailabilityService) {
         this.inventoryRepository = inventoryRepository;
         this.storeRepository = storeRepository;
         this.productRepository = productRepository;
+        this.productHeatmapService = productHeatmapService;
+        this.storeAvailabilityService = storeAvailabilityService;
     }
 
+    //transactional so the heatmap cell recount and the store_availability row commit (or roll back) with the inventory row
     @Override
+    @Transactional
     @PreAuthorize("hasRole('STORE_OWNER')")
     public Inventory createInventory(CreateInventoryRequestDto inventoryRequest) {
         log.info("createInventory() invoked | storeId={}, productId={}", inventoryRequest.getStoreId(), inventoryRequest.getProductId());
@@ -48,6 +58,10 @@ public class InventoryService implements IInventoryService {
         Product product = retrieveProduct(productId);
         Inventory inventory = buildInventory(inventoryRequest, store, product);
         Inventory saved = inventoryRepository.save(inventory);
+        //read model first: it share-locks the store row, which has to come before the heatmap cell lock (same order as
+        //the store writes, otherwise an inventory write and a store update can deadlock)
+        storeAvailabilityService.syncInventory(storeId, productId);
+        productHeatmapService.refreshCells(List.of(productId), store.getLatitude(), store.getLongitude());
         log.info("Inventory created successfully | inventoryId={}", saved.getId());
         return saved;
     }
@@ -90,19 +104,25 @@ public class InventoryService implements IInventoryService {
 
     //SOFT DELETE IMPL maybe later
     @Override
+    @Transactional
     @PreAuthorize("hasRole('STORE_OWNER')")
     public void deleteInventoryByInventoryId(Long inventoryId) {
         log.info("deleteInventoryById() invoked | inventoryId={}", inventoryId);
-        inventoryRepository.findById(inventoryId)
+        Inventory inventory = inventoryRepository.findById(inventoryId)
                 .orElseThrow(() -> {
                     log.warn("Inventory not found | inventoryId={}", inventoryId);
                     return new ResourceNotFoundException(format("Inventory with ID:,%d , not found !", inventoryId));
                 });
+        Store store = inventory.getStore();
+        Long productId = inventory.getProduct().getId();
         inventoryRepository.deleteById(inventoryId);
+        storeAvailabilityService.syncInventory(store.getId(), productId);
+        productHeatmapService.refreshCells(List.of(productId), store.getLatitude(), store.getLongitude());
         log.info("Inventory deleted | inventoryId={}", inventoryId);
     }
 
     @Override
+    @Transactional
     @PreAuthorize("hasRole('STORE_OWNER')")
     public Inventory updateInventoryByInventoryId(Long inventoryId, UpdateInventoryRequestDto dto) {
         log.info("updateInventory() invoked | inventoryId={}, price={}, quantity={}, isActive={}",
@@ -124,11 +144,15 @@ public class InventoryService implements IInventoryService {
         inventory.setStockQuantity(dto.getStockQuantity());
         inventory.setUpdatedAt(LocalDateTime.now());
         Inventory updated = inventoryRepository.save(inventory);
+        storeAvailabilityService.syncInventory(inventory.getStore().getId(), inventory.getProduct().getId());
+        productHeatmapService.refreshCells(List.of(inventory.getProduct().getId()),
+                inventory.getStore().getLatitude(), inventory.getStore().getLongitude());
         log.info("Inventory updated successfully | inventoryId={}", inventoryId);
         return updated;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InventoryResponseDto> getAllActiveInventories() {
         log.info("getAllInventories() invoked");
         List<Inventory> activeOnes = inventoryRepository.findAllByIsActiveTrue();
@@ -151,6 +175,7 @@ public class InventoryService implements IInventoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InventoryResponseDto> getInventoryUsingStoreId(Long storeId) {
         log.info("getInventoryByStore() invoked | storeId={}", storeId);
         if (!storeRepository.existsById(storeId)) {
@@ -163,6 +188,7 @@ public class InventoryService implements IInventoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InventoryResponseDto> getInventoryUsingProductId(Long productId) {
         log.info("getInventoryByProduct() invoked | productId={}", productId);
         if (!productRepository.existsById(productId)) {
@@ -175,6 +201,7 @@ public class InventoryService implements IInventoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Integer getProductsStockLevel(Long storeId, Long productId) {
         log.info("getProductsStockLevel() invoked | storeId={}, productId={}", storeId, productId);
         boolean inventoryExists = inventoryRepository.existsByStoreIdAndProductId(storeId, productId);
@@ -188,6 +215,7 @@ public class InventoryService implements IInventoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InventoryResponseDto> getInventoryForProductWithinPriceRange(BigDecimal minimumPrice, BigDecimal maximumPrice) {
         log.info("getInventoryForAProductWithinPriceRange() invoked | minPrice={}, maxPrice={}", minimumPrice, maximumPrice);
         if (minimumPrice == null || maximumPrice == null) {
@@ -225,6 +253,7 @@ public class InventoryService implements IInventoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<StoreDto> getStoresWithProductInStock(Long productId) {
         log.info("getStoreWhereSpecificProductAvailable() invoked | productId={}", productId);
         if (!productRepository.existsById(productId)) {
@@ -2,6 +2,7 @@ package com.ahmad.ProductFinder.service.productService;
 
 import com.ahmad.ProductFinder.dtos.request.CreateProductRequestDto;
 import com.ahmad.ProductFinder.dtos.request.UpdateProductRequestDto;
+import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
 import com.ahmad.ProductFinder.dtos.response.ProductResponseDto;
 
 import java.math.BigDecimal;
@@ -15,5 +16,6 @@ public interface IProductService {
     List<ProductResponseDto> getProductByCategory(String category);
     List<ProductResponseDto> getAllProducts();
     List<ProductResponseDto> searchProductsByProductName(String name);
+    PagedResponseDto<ProductResponseDto> searchProductsByFullTextSearch(String query, int page, int size);
     List<ProductResponseDto> filterProductsByPriceRange(BigDecimal min, BigDecimal max);
 }
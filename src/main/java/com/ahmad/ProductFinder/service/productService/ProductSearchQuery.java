@@ -0,0 +1,28 @@
+package com.ahmad.ProductFinder.service.productService;
+
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/***
+ * turns what the user typed into a prefix tsquery for product.searchable,
+ * e.g "ofada ric" -> "ofada:* & ric:*" so "rice" also matches "ofada rice" and half typed words still match.
+ * only letters and digits are kept, so the user can never send to_tsquery a syntax error
+ */
+public final class ProductSearchQuery {
+    private ProductSearchQuery() {
+    }
+
+    public static String toPrefixTsQuery(String input) {
+        String tsQuery = input == null ? "" : Arrays.stream(input.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isBlank())
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+
+        if (tsQuery.isEmpty()) {
+            throw new IllegalArgumentException("Search term must contain at least one letter or digit");
+        }
+        return tsQuery;
+    }
+}
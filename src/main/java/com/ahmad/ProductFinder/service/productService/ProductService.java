@@ -1,13 +1,22 @@
 package com.ahmad.ProductFinder.service.productService;
 
+import com.ahmad.ProductFinder.configuration.CacheNames;
 import com.ahmad.ProductFinder.dtos.request.CreateProductRequestDto;
 import com.ahmad.ProductFinder.dtos.request.UpdateProductRequestDto;
+import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
 import com.ahmad.ProductFinder.dtos.response.ProductResponseDto;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
 import com.ahmad.ProductFinder.models.Product;
 import com.ahmad.ProductFinder.repositories.ProductRepository;
+import com.ahmad.ProductFinder.service.heatmapService.IProductHeatmapService;
+import com.ahmad.ProductFinder.service.store.availabilityService.IStoreAvailabilityService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,14 +28,21 @@ import java.util.List;
 @Slf4j
 @Service
 public class ProductService implements IProductService {
+    private static final int MAX_FTS_PAGE_SIZE = 50;
     private final ProductRepository productRepository;
+    private final IProductHeatmapService productHeatmapService;
+    private final IStoreAvailabilityService storeAvailabilityService;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, IProductHeatmapService productHeatmapService,
+                          IStoreAvailabilityService storeAvailabilityService) {
         this.productRepository = productRepository;
+        this.productHeatmapService = productHeatmapService;
+        this.storeAvailabilityService = storeAvailabilityService;
     }
 
     @Override
     @PreAuthorize("hasRole('STORE_OWNER')")
+    @CacheEvict(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, allEntries = true)
     public ProductResponseDto createProduct(CreateProductRequestDto dto) {
         log.info("createProduct service method invoked");
 
@@ -45,6 +61,10 @@ public class ProductService implements IProductService {
     @Transactional
     @Override
     @PreAuthorize("hasRole('STORE_OWNER')")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS, key = "#productId"),
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, allEntries = true)
+    })
     public ProductResponseDto updateProduct(Long productId, UpdateProductRequestDto request) {
         log.info("updateProduct service method invoked for ID: {}", productId);
 
@@ -60,6 +80,8 @@ public class ProductService implements IProductService {
         result.setCategory(request.category());
         result.setUpdatedAt(LocalDateTime.now());
         productRepository.save(result);
+        //name / category / description feed product.searchable, which the read model copies
+        storeAvailabilityService.syncProduct(productId);
 
         log.info("Product with ID {} updated successfully", productId);
 
@@ -69,6 +91,11 @@ public class ProductService implements IProductService {
     @Transactional
     @Override
     @PreAuthorize("hasRole('STORE_OWNER')")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS, key = "#productId"),
+            @CacheEvict(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, allEntries = true),
+            @CacheEvict(cacheNames = CacheNames.PRODUCT_IMAGES, key = "#productId")
+    })
     public void deleteProductUsingProductId(Long productId) {
         log.info("deleteProduct service method invoked for ID: {}", productId);
 
@@ -79,10 +106,15 @@ public class ProductService implements IProductService {
                 });
 
         productRepository.delete(result);
+        productHeatmapService.removeProduct(productId);
+        storeAvailabilityService.syncProduct(productId);
         log.info("Product with ID {} deleted successfully", productId);
     }
 
+    //not readOnly on purpose: cached results are read from the primary, a lagging replica would put the pre-update row
+    //back into the cache right after the update evicted it
     @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS, key = "#productId")
     public ProductResponseDto getProductUsingProductId(Long productId) {
         log.info("getProductById service method invoked for ID: {}", productId);
 
@@ -102,7 +134,9 @@ public class ProductService implements IProductService {
         );
     }
 
+    //primary too, same reason as getProductUsingProductId
     @Override
+    @Cacheable(cacheNames = CacheNames.PRODUCTS_BY_CATEGORY, key = "#category")
     public List<ProductResponseDto> getProductByCategory(String category) {
         log.info("getProductByCategory service method invoked for category: {}", category);
 
@@ -117,6 +151,7 @@ public class ProductService implements IProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> getAllProducts() {
         log.info("getAllProducts service method invoked");
 
@@ -128,6 +163,7 @@ public class ProductService implements IProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> searchProductsByProductName(String productName) {
         log.info("searchProductsByName service method invoked for name: {}", productName);
 
@@ -138,6 +174,31 @@ public class ProductService implements IProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PagedResponseDto<ProductResponseDto> searchProductsByFullTextSearch(String query, int page, int size) {
+        log.info("searchProductsByFullTextSearch service method invoked for query: {}", query);
+
+        String tsQuery = ProductSearchQuery.toPrefixTsQuery(query);
+        //every matching row is ranked before the page is cut, keep the page small
+        Page<Product> result = productRepository.fullTextSearch(tsQuery, PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_FTS_PAGE_SIZE)));
+
+        if (result.isEmpty()) {
+            log.warn("No product matched FTS query: {}", query);
+            throw new ResourceNotFoundException("No products matching : " + query);
+        }
+
+        return PagedResponseDto.<ProductResponseDto>builder()
+                .content(result.getContent().stream().map(ProductResponseDto::from).toList())
+                .pageNumber(result.getNumber())
+                .pageSize(result.getSize())
+                .totalElements(result.getTotalElements())
+                .totalPages(result.getTotalPages())
+                .isLast(result.isLast())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> filterProductsByPriceRange(BigDecimal min, BigDecimal max) {
         log.info("filterProductsByPriceRange service method invoked for range: {} - {}", min, max);
         if (min.compareTo(max) > 0) {
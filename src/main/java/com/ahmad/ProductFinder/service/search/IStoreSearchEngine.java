@@ -0,0 +1,25 @@
+package com.ahmad.ProductFinder.service.search;
+
+import com.ahmad.ProductFinder.projection.StoreProjection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/***
+ * alternative to the postgres FTS queries in StoreRepository.
+ * StoreQueryService only uses it while isAvailable() is true, otherwise it stays on SQL
+ */
+public interface IStoreSearchEngine {
+    boolean isAvailable();
+
+    List<StoreProjection> fullTextSearch(String query, int limit);
+
+    Page<StoreProjection> searchNearbyInStock(String query, double latitude, double longitude, double radiusInMetres, Pageable pageable);
+
+    void storeChanged(Long storeId);
+
+    void productChanged(Long productId);
+
+    void tagChanged(Long tagId);
+}
@@ -0,0 +1,100 @@
+package com.ahmad.ProductFinder.service.search;
+
+import com.ahmad.ProductFinder.projection.StoreProjection;
+import org.locationtech.jts.geom.Point;
+
+import java.util.Set;
+
+/***
+ * a search hit read back from the lucene index, shaped like the SQL projections so StoreMapper can map both
+ */
+record IndexedStore(
+        Long id,
+        String name,
+        String description,
+        double latitude,
+        double longitude,
+        String street,
+        String city,
+        String state,
+        String country,
+        String postalCode,
+        Double distanceInMetres,
+        Set<String> tags
+) implements StoreProjection {
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public boolean getIs_active() {
+        return true; // only active stores are indexed
+    }
+
+    @Override
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    @Override
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    @Override
+    public Double getDistance() {
+        return distanceInMetres;
+    }
+
+    @Override
+    public String getStreet() {
+        return street;
+    }
+
+    @Override
+    public String getCity() {
+        return city;
+    }
+
+    @Override
+    public String getState() {
+        return state;
+    }
+
+    @Override
+    public String getCountry() {
+        return country;
+    }
+
+    @Override
+    public String getPostal_code() {
+        return postalCode;
+    }
+
+    @Override
+    public Point getLocation() {
+        return null;
+    }
+
+    @Override
+    public Double getDistance_in_metres() {
+        return distanceInMetres;
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return tags;
+    }
+}
@@ -0,0 +1,416 @@
+package com.ahmad.ProductFinder.service.search;
+
+import com.ahmad.ProductFinder.embedded.Address;
+import com.ahmad.ProductFinder.models.Inventory;
+import com.ahmad.ProductFinder.models.Store;
+import com.ahmad.ProductFinder.models.Tag;
+import com.ahmad.ProductFinder.projection.StoreProjection;
+import com.ahmad.ProductFinder.repositories.InventoryRepository;
+import com.ahmad.ProductFinder.repositories.StoreRepository;
+import com.ahmad.ProductFinder.repositories.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.SloppyMath;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/***
+ * Embedded lucene index over active stores: name, description, tags, names/categories of in-stock products and location.
+ * The index is rebuilt from the DB on every startup (in the background, SQL serves searches until it is done) and then kept
+ * up to date by SearchIndexEntityListener. All index writes go through one thread so a rebuild and the incremental
+ * updates queued behind it can't interleave.
+ * Switched on with search.lucene.enabled=true
+ */
+@Slf4j
+@Component
+public class LuceneStoreSearchEngine implements IStoreSearchEngine, ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private static final String F_ID = "id";
+    private static final String F_NAME = "name";
+    private static final String F_DESCRIPTION = "description";
+    private static final String F_TAGS = "tags";
+    private static final String F_PRODUCTS = "products";
+    private static final String F_IN_STOCK = "in_stock";
+    private static final String F_LOCATION = "location";
+    private static final String F_LATITUDE = "latitude";
+    private static final String F_LONGITUDE = "longitude";
+    private static final String F_STREET = "street";
+    private static final String F_CITY = "city";
+    private static final String F_STATE = "state";
+    private static final String F_COUNTRY = "country";
+    private static final String F_POSTAL_CODE = "postal_code";
+
+    //same order of importance as the weighted postgres tsvectors
+    private static final Map<String, Float> TEXT_FIELD_BOOSTS = Map.of(
+            F_NAME, 3f,
+            F_TAGS, 2f,
+            F_PRODUCTS, 2f,
+            F_DESCRIPTION, 1f
+    );
+
+    private final StoreRepository storeRepository;
+    private final InventoryRepository inventoryRepository;
+    private final TagRepository tagRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StandardAnalyzer analyzer = new StandardAnalyzer();
+    private final ExecutorService indexingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lucene-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${search.lucene.enabled:false}")
+    private boolean enabled;
+    @Value("${search.lucene.index-path:./data/lucene-index}")
+    private String indexPath;
+    @Value("${search.hybrid.text-weight:0.7}")
+    private float textWeight;
+    @Value("${search.hybrid.distance-weight:0.3}")
+    private float distanceWeight;
+    @Value("${search.hybrid.distance-decay-metres:2000}")
+    private double distanceDecayInMetres;
+
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready = false;
+
+    public LuceneStoreSearchEngine(StoreRepository storeRepository, InventoryRepository inventoryRepository,
+                                   TagRepository tagRepository, PlatformTransactionManager transactionManager) {
+        this.storeRepository = storeRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.tagRepository = tagRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            log.info("Lucene search index disabled, store search stays on SQL");
+            return;
+        }
+        try {
+            writer = new IndexWriter(FSDirectory.open(Path.of(indexPath)),
+                    new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            log.error("Could not open lucene index at {}, store search stays on SQL", indexPath, e);
+            return;
+        }
+        indexingExecutor.submit(this::rebuild);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return enabled && ready;
+    }
+
+    @Override
+    public List<StoreProjection> fullTextSearch(String query, int limit) {
+        return withSearcher(searcher -> {
+            TopDocs topDocs = searcher.search(textQuery(query), limit);
+            List<StoreProjection> hits = new ArrayList<>();
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                hits.add(toHit(searcher.storedFields().document(scoreDoc.doc), null));
+            }
+            return hits;
+        });
+    }
+
+    /***
+     * same semantics as the SQL hybrid ranking: text relevance * textWeight + distanceWeight * decay / (decay + distance)
+     * (that's exactly what lucene's distance feature query scores). Text relevance is BM25 squashed to s / (s + 1), the
+     * same normalization as ts_rank(..., 32)
+     */
+    @Override
+    public Page<StoreProjection> searchNearbyInStock(String query, double latitude, double longitude, double radiusInMetres, Pageable pageable) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(new BoostQuery(new SaturatedScoreQuery(textQuery(query)), textWeight), BooleanClause.Occur.MUST)
+                .add(LatLonPoint.newDistanceQuery(F_LOCATION, latitude, longitude, radiusInMetres), BooleanClause.Occur.FILTER)
+                .add(new TermQuery(new Term(F_IN_STOCK, "true")), BooleanClause.Occur.FILTER);
+        if (distanceWeight > 0) {
+            builder.add(LatLonPoint.newDistanceFeatureQuery(F_LOCATION, distanceWeight, latitude, longitude, distanceDecayInMetres),
+                    BooleanClause.Occur.SHOULD);
+        }
+        Query luceneQuery = builder.build();
+
+        return withSearcher(searcher -> {
+            int from = (int) pageable.getOffset();
+            TopDocs topDocs = searcher.search(luceneQuery, from + pageable.getPageSize());
+            List<StoreProjection> hits = new ArrayList<>();
+            for (int i = from; i < topDocs.scoreDocs.length; i++) {
+                Document doc = searcher.storedFields().document(topDocs.scoreDocs[i].doc);
+                double distance = SloppyMath.haversinMeters(latitude, longitude,
+                        doc.getField(F_LATITUDE).numericValue().doubleValue(),
+                        doc.getField(F_LONGITUDE).numericValue().doubleValue());
+                hits.add(toHit(doc, distance));
+            }
+            return new PageImpl<>(hits, pageable, searcher.count(luceneQuery));
+        });
+    }
+
+    @Override
+    public void storeChanged(Long storeId) {
+        enqueueAfterCommit(() -> List.of(storeId));
+    }
+
+    @Override
+    public void productChanged(Long productId) {
+        enqueueAfterCommit(() -> inventoryRepository.findStoreIdsByProductId(productId));
+    }
+
+    @Override
+    public void tagChanged(Long tagId) {
+        enqueueAfterCommit(() -> tagRepository.findStoreIdsByTagId(tagId));
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        indexingExecutor.shutdownNow();
+        if (searcherManager != null) {
+            searcherManager.close();
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    //=================================================================== INDEXING ================================================================
+
+    private void rebuild() {
+        ready = false;
+        long started = System.currentTimeMillis();
+        try {
+            writer.deleteAll();
+            int indexed = 0;
+            Page<Store> page;
+            int pageNumber = 0;
+            do {
+                PageRequest pageRequest = PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id"));
+                page = readOnlyTransaction.execute(status -> {
+                    Page<Store> stores = storeRepository.findByIsActiveTrue(pageRequest);
+                    writeDocuments(stores.getContent());
+                    return stores;
+                });
+                indexed += page.getNumberOfElements();
+            } while (page.hasNext());
+
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready = true;
+            log.info("Lucene store index rebuilt: {} store(s) in {} ms", indexed, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Lucene store index rebuild failed, store search stays on SQL", e);
+        }
+    }
+
+    private void reindex(Collection<Long> storeIds) {
+        if (storeIds.isEmpty()) {
+            return;
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                List<Store> stores = storeRepository.findAllById(storeIds);
+                Set<Long> found = stores.stream().filter(Store::isActive).map(Store::getId).collect(Collectors.toSet());
+                for (Long storeId : storeIds) {
+                    if (!found.contains(storeId)) {
+                        deleteDocument(storeId);
+                    }
+                }
+                writeDocuments(stores.stream().filter(Store::isActive).toList());
+            });
+            searcherManager.maybeRefresh();
+        } catch (Exception e) {
+            log.error("Failed to reindex store(s) {}", storeIds, e);
+        }
+    }
+
+    //must run inside readOnlyTransaction, tags are lazy
+    private void writeDocuments(List<Store> stores) {
+        if (stores.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Inventory>> inStockByStore = inventoryRepository
+                .findInStockWithProductByStoreIdIn(stores.stream().map(Store::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(inv -> inv.getStore().getId()));
+        try {
+            for (Store store : stores) {
+                writer.updateDocument(new Term(F_ID, store.getId().toString()),
+                        toDocument(store, inStockByStore.getOrDefault(store.getId(), List.of())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteDocument(Long storeId) {
+        try {
+            writer.deleteDocuments(new Term(F_ID, storeId.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Document toDocument(Store store, List<Inventory> inStock) {
+        Document doc = new Document();
+        doc.add(new StringField(F_ID, store.getId().toString(), Field.Store.YES));
+        doc.add(new TextField(F_NAME, Objects.toString(store.getName(), ""), Field.Store.YES));
+        doc.add(new TextField(F_DESCRIPTION, Objects.toString(store.getDescription(), ""), Field.Store.YES));
+        for (Tag tag : store.getTags()) {
+            doc.add(new TextField(F_TAGS, tag.getName(), Field.Store.YES));
+        }
+        for (Inventory inventory : inStock) {
+            doc.add(new TextField(F_PRODUCTS, inventory.getProduct().getName(), Field.Store.NO));
+            doc.add(new TextField(F_PRODUCTS, Objects.toString(inventory.getProduct().getCategory(), ""), Field.Store.NO));
+        }
+        doc.add(new StringField(F_IN_STOCK, String.valueOf(!inStock.isEmpty()), Field.Store.NO));
+
+        doc.add(new LatLonPoint(F_LOCATION, store.getLatitude(), store.getLongitude()));
+        doc.add(new LatLonDocValuesField(F_LOCATION, store.getLatitude(), store.getLongitude()));
+        doc.add(new StoredField(F_LATITUDE, store.getLatitude()));
+        doc.add(new StoredField(F_LONGITUDE, store.getLongitude()));
+
+        Address address = store.getAddress();
+        if (address != null) {
+            addStored(doc, F_STREET, address.getStreet());
+            addStored(doc, F_CITY, address.getCity());
+            addStored(doc, F_STATE, address.getState());
+            addStored(doc, F_COUNTRY, address.getCountry());
+            addStored(doc, F_POSTAL_CODE, address.getPostalCode());
+        }
+        return doc;
+    }
+
+    private static void addStored(Document doc, String field, String value) {
+        if (value != null) {
+            doc.add(new StoredField(field, value));
+        }
+    }
+
+    //=================================================================== SEARCHING ================================================================
+
+    /***
+     * every word has to match somewhere (name, tags, products or description), exact terms score above prefix matches
+     */
+    private Query textQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return new MatchNoDocsQuery("empty query");
+        }
+        BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            TEXT_FIELD_BOOSTS.forEach((field, boost) -> {
+                anyField.add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(new Term(field, term)), boost / 2), BooleanClause.Occur.SHOULD);
+            });
+            allTerms.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return allTerms.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream tokenStream = analyzer.tokenStream(F_NAME, text)) {
+            CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private IndexedStore toHit(Document doc, Double distanceInMetres) {
+        return new IndexedStore(
+                Long.valueOf(doc.get(F_ID)),
+                doc.get(F_NAME),
+                doc.get(F_DESCRIPTION),
+                doc.getField(F_LATITUDE).numericValue().doubleValue(),
+                doc.getField(F_LONGITUDE).numericValue().doubleValue(),
+                doc.get(F_STREET),
+                doc.get(F_CITY),
+                doc.get(F_STATE),
+                doc.get(F_COUNTRY),
+                doc.get(F_POSTAL_CODE),
+                distanceInMetres,
+                Set.of(doc.getValues(F_TAGS))
+        );
+    }
+
+    private <T> T withSearcher(SearchFunction<T> search) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return search.apply(searcher);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void enqueueAfterCommit(Supplier<Collection<Long>> affectedStoreIds) {
+        if (!enabled) {
+            return;
+        }
+        Runnable task = () -> indexingExecutor.submit(() -> {
+            if (writer != null) {
+                reindex(readOnlyTransaction.execute(status -> affectedStoreIds.get()));
+            }
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface SearchFunction<T> {
+        T apply(IndexSearcher searcher) throws IOException;
+    }
+}
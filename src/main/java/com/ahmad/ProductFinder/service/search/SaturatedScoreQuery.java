@@ -0,0 +1,86 @@
+package com.ahmad.ProductFinder.service.search;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.*;
+
+import java.io.IOException;
+
+/***
+ * wraps a query and maps its score s to s / (s + 1), the same 0..1 squashing ts_rank(..., 32) applies on the SQL side,
+ * so the lucene and SQL hybrid rankings weigh text relevance against the (already 0..1) distance decay the same way.
+ * Raw BM25 is unbounded and would drown the distance part. lucene-queries' FunctionScoreQuery does this too, but isn't
+ * worth a dependency for one expression. The boost is applied after squashing, like a BoostQuery around the SQL rank
+ */
+final class SaturatedScoreQuery extends Query {
+    private final Query in;
+
+    SaturatedScoreQuery(Query in) {
+        this.in = in;
+    }
+
+    private static float saturate(float score) {
+        return score / (score + 1f);
+    }
+
+    @Override
+    public Query rewrite(IndexSearcher indexSearcher) throws IOException {
+        Query rewritten = in.rewrite(indexSearcher);
+        return rewritten == in ? super.rewrite(indexSearcher) : new SaturatedScoreQuery(rewritten);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        Weight inner = in.createWeight(searcher, scoreMode, 1f);
+        return new FilterWeight(this, inner) {
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                Scorer scorer = in.scorer(context);
+                if (scorer == null) {
+                    return null;
+                }
+                return new FilterScorer(scorer, this) {
+                    @Override
+                    public float score() throws IOException {
+                        return boost * saturate(in.score());
+                    }
+
+                    //s / (s + 1) only ever grows with s, so the inner max maps straight through
+                    @Override
+                    public float getMaxScore(int upTo) throws IOException {
+                        return boost * saturate(in.getMaxScore(upTo));
+                    }
+                };
+            }
+
+            @Override
+            public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+                Explanation inner = in.explain(context, doc);
+                if (!inner.isMatch()) {
+                    return inner;
+                }
+                float score = boost * saturate(inner.getValue().floatValue());
+                return Explanation.match(score, "boost * s / (s + 1), s = inner score", inner);
+            }
+        };
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        in.visit(visitor.getSubVisitor(BooleanClause.Occur.MUST, this));
+    }
+
+    @Override
+    public String toString(String field) {
+        return "saturated(" + in.toString(field) + ")";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return sameClassAs(other) && in.equals(((SaturatedScoreQuery) other).in);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * classHash() + in.hashCode();
+    }
+}
@@ -0,0 +1,43 @@
+package com.ahmad.ProductFinder.service.search;
+
+import com.ahmad.ProductFinder.models.Inventory;
+import com.ahmad.ProductFinder.models.Product;
+import com.ahmad.ProductFinder.models.Store;
+import com.ahmad.ProductFinder.models.Tag;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/***
+ * feeds the search index from JPA writes. It only passes ids along, the engine re-reads the store after commit
+ * (the listener runs in the middle of a flush, so touching lazy associations here is not an option)
+ */
+@Component
+public class SearchIndexEntityListener {
+    //provider coz hibernate builds the listener while the entity manager factory (and the repositories) are still starting
+    private final ObjectProvider<IStoreSearchEngine> searchEngine;
+
+    public SearchIndexEntityListener(ObjectProvider<IStoreSearchEngine> searchEngine) {
+        this.searchEngine = searchEngine;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        IStoreSearchEngine engine = searchEngine.getIfAvailable();
+        if (engine == null) {
+            return;
+        }
+        switch (entity) {
+            case Store store -> engine.storeChanged(store.getId());
+            case Inventory inventory -> engine.storeChanged(inventory.getStore().getId());
+            case Product product -> engine.productChanged(product.getId());
+            case Tag tag -> engine.tagChanged(tag.getId());
+            default -> {
+            }
+        }
+    }
+}
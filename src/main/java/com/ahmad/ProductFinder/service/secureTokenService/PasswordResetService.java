@@ -8,7 +8,6 @@ import com.ahmad.ProductFinder.mailing.PasswordResetEmailContext;
 import com.ahmad.ProductFinder.models.SecureToken;
 import com.ahmad.ProductFinder.models.User;
 import com.ahmad.ProductFinder.repositories.UserRepository;
-import com.sun.xml.messaging.saaj.packaging.mime.MessagingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -57,13 +56,8 @@ public class PasswordResetService {
                     passwordResetEmailContext.setToken(token.getToken());
                     passwordResetEmailContext.buildVerificationUrl(baseURL, token.getToken());
 
-                    try {
-                        emailService.sendEmail(passwordResetEmailContext);
-                        log.info("Password reset email queued for {}", user.getEmail());
-                    } catch (MessagingException | jakarta.mail.MessagingException e) {
-                        log.info("Reset Password mail not sent for, email with : {}", requestDto.getEmail());
-                        e.printStackTrace();
-                    }
+                    emailService.sendEmail(passwordResetEmailContext);
+                    log.info("Password reset email queued for {}", user.getEmail());
                 }
         );
     }
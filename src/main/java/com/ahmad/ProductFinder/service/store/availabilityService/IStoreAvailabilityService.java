@@ -0,0 +1,13 @@
+package com.ahmad.ProductFinder.service.store.availabilityService;
+
+public interface IStoreAvailabilityService {
+    void syncInventory(Long storeId, Long productId);
+
+    void syncStore(Long storeId);
+
+    void syncProduct(Long productId);
+
+    void rebuild();
+
+    void rebuildIfEmpty();
+}
@@ -0,0 +1,67 @@
+package com.ahmad.ProductFinder.service.store.availabilityService;
+
+import com.ahmad.ProductFinder.repositories.StoreAvailabilityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/***
+ * Keeps the store_availability read model (see StoreAvailability) in step with inventory, store and product.
+ * Every sync joins the writer's transaction (the callers are all @Transactional) and re-derives the
+ * affected rows from the source tables with an upsert and drops the rows whose inventory is gone, so the read model
+ * commits or rolls back together with the change and a sync can be repeated safely.
+ * - inventory created / updated / deleted -> syncInventory(storeId, productId)
+ * - store moved / disabled / restored / deleted -> syncStore(storeId)
+ * - product edited (search document) / deleted -> syncProduct(productId)
+ */
+@Slf4j
+@Service
+public class StoreAvailabilityService implements IStoreAvailabilityService {
+    private final StoreAvailabilityRepository storeAvailabilityRepository;
+
+    public StoreAvailabilityService(StoreAvailabilityRepository storeAvailabilityRepository) {
+        this.storeAvailabilityRepository = storeAvailabilityRepository;
+    }
+
+    @Override
+    @Transactional
+    public void syncInventory(Long storeId, Long productId) {
+        int upserted = storeAvailabilityRepository.upsertInventory(storeId, productId);
+        int deleted = storeAvailabilityRepository.deleteOrphansOfStore(storeId, productId);
+        log.debug("store_availability synced for store {} / product {}: {} upserted, {} deleted", storeId, productId, upserted, deleted);
+    }
+
+    @Override
+    @Transactional
+    public void syncStore(Long storeId) {
+        int upserted = storeAvailabilityRepository.upsertStore(storeId);
+        int deleted = storeAvailabilityRepository.deleteOrphansOfStore(storeId, null);
+        log.debug("store_availability synced for store {}: {} upserted, {} deleted", storeId, upserted, deleted);
+    }
+
+    //a popular product is stocked by a lot of stores, this rewrites all of their rows (product edits are rare)
+    @Override
+    @Transactional
+    public void syncProduct(Long productId) {
+        int upserted = storeAvailabilityRepository.upsertProduct(productId);
+        int deleted = storeAvailabilityRepository.deleteOrphansOfProduct(productId);
+        log.info("store_availability synced for product {}: {} upserted, {} deleted", productId, upserted, deleted);
+    }
+
+    @Override
+    @Transactional
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        storeAvailabilityRepository.truncate();
+        int rows = storeAvailabilityRepository.insertAll();
+        log.info("store_availability rebuilt: {} row(s) in {} ms", rows, System.currentTimeMillis() - started);
+    }
+
+    @Override
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (!storeAvailabilityRepository.hasRows()) {
+            rebuild();
+        }
+    }
+}
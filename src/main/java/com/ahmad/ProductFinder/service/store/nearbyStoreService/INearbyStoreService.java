@@ -1,8 +1,14 @@
 package com.ahmad.ProductFinder.service.store.nearbyStoreService;
 
+import com.ahmad.ProductFinder.dtos.request.BatchNearestStoresRequestDto;
+import com.ahmad.ProductFinder.dtos.request.BoundingBoxParams;
 import com.ahmad.ProductFinder.dtos.request.NearbyStoreSearchParams;
+import com.ahmad.ProductFinder.dtos.response.BatchNearestStoresResponseDto;
+import com.ahmad.ProductFinder.dtos.response.NearbyStoreFacetsResponseDto;
 import com.ahmad.ProductFinder.dtos.response.NearbyStoreResponseDto;
 import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
+import com.ahmad.ProductFinder.dtos.response.StoreClustersResponseDto;
+import com.ahmad.ProductFinder.dtos.response.ViewportStoresResponseDto;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
 import java.util.List;
@@ -11,13 +17,23 @@ import java.util.Set;
 public interface INearbyStoreService {
     PagedResponseDto<NearbyStoreResponseDto> findNearbyStores(@ModelAttribute NearbyStoreSearchParams params);
 
+    NearbyStoreFacetsResponseDto findNearbyStoresWithTagFacets(NearbyStoreSearchParams params);
+
     PagedResponseDto<NearbyStoreResponseDto> findNearbyStoresWithProductName(NearbyStoreSearchParams params,String productName);
 
 //    List<NearbyStoreResponseDto> searchByFullTextSearch(String query);
 
-    List<NearbyStoreResponseDto> searchNearbyWithFullTextSearchAndProductInStock(String query, double lat, double lon, double radiusInKm);
+    PagedResponseDto<NearbyStoreResponseDto> searchNearbyWithFullTextSearchAndProductInStock(String query, double lat, double lon, double radiusInKm, int page, int size);
 
     List<NearbyStoreResponseDto> findNearbyStoresByProductId(double latitude, double longitude, double radiusInKm, Long productId);
 
     List<NearbyStoreResponseDto> findNearbyStoreAndFilterByTags(NearbyStoreSearchParams params, Set<String> tagNames, boolean matchAll);
+
+    StoreClustersResponseDto findStoreClusters(BoundingBoxParams box, int zoom);
+
+    List<NearbyStoreResponseDto> findNearestStores(double latitude, double longitude, Integer limit, Long productId);
+
+    BatchNearestStoresResponseDto findNearestStoresForOrigins(BatchNearestStoresRequestDto request);
+
+    ViewportStoresResponseDto findStoresInViewport(BoundingBoxParams box, String tag, Long productId, Integer limit);
 }
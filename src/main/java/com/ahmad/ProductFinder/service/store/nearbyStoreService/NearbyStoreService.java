@@ -1,14 +1,26 @@
 package com.ahmad.ProductFinder.service.store.nearbyStoreService;
 
+import com.ahmad.ProductFinder.dtos.request.BatchNearestStoresRequestDto;
+import com.ahmad.ProductFinder.dtos.request.BoundingBoxParams;
 import com.ahmad.ProductFinder.dtos.request.NearbyStoreSearchParams;
+import com.ahmad.ProductFinder.dtos.response.BatchNearestStoresResponseDto;
+import com.ahmad.ProductFinder.dtos.response.NearbyStoreFacetsResponseDto;
 import com.ahmad.ProductFinder.dtos.response.NearbyStoreResponseDto;
+import com.ahmad.ProductFinder.dtos.response.OriginNearestStoresDto;
 import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
+import com.ahmad.ProductFinder.dtos.response.StoreClusterDto;
+import com.ahmad.ProductFinder.dtos.response.StoreClustersResponseDto;
+import com.ahmad.ProductFinder.dtos.response.ViewportStoresResponseDto;
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+import com.ahmad.ProductFinder.projection.OriginStoreProjection;
+import com.ahmad.ProductFinder.projection.StoreClusterProjection;
 import com.ahmad.ProductFinder.projection.StoreProjection;
 import com.ahmad.ProductFinder.service.store.storeService.StoreMapper;
 import com.ahmad.ProductFinder.service.store.storeService.StoreQueryService;
 import com.ahmad.ProductFinder.service.store.utils.StoreUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,20 +29,45 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.lang.String.format;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class NearbyStoreService implements INearbyStoreService {
+    private static final int MAX_ZOOM = 22;
+    private static final int MAX_FTS_PAGE_SIZE = 50;
+    //web mercator world width, one 256px tile covers all of it at zoom 0
+    private static final double WORLD_WIDTH_IN_METRES = 40_075_016.686;
+    private static final int TILE_SIZE_PX = 256;
 
     private final StoreQueryService storeQueryService;
     private final StoreMapper storeMapper;
     private final StoreUtils storeUtils;
 
+    //cluster grid cell size on screen, and how many clusters one response may carry
+    @Value("${stores.clusters.cell-size-px:60}")
+    private int clusterCellSizePx;
+    @Value("${stores.clusters.max-clusters:2000}")
+    private int maxClusters;
+    @Value("${stores.nearest.default-results:10}")
+    private int defaultNearestResults;
+    @Value("${stores.nearest.max-results:50}")
+    private int maxNearestResults;
+    //origins per /nearest/batch request
+    @Value("${stores.nearest.batch.max-origins:500}")
+    private int maxBatchOrigins;
+    //hard cap of the viewport search, a client can ask for less but never more
+    @Value("${stores.viewport.max-results:500}")
+    private int maxViewportResults;
+
     public NearbyStoreService(StoreQueryService storeQueryService, StoreMapper storeMapper, StoreUtils storeUtils) {
         this.storeQueryService = storeQueryService;
         this.storeMapper = storeMapper;
@@ -54,6 +91,19 @@ public class NearbyStoreService implements INearbyStoreService {
         return storeMapper.toPagedResponseDto(resultPage);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public NearbyStoreFacetsResponseDto findNearbyStoresWithTagFacets(NearbyStoreSearchParams params) {
+        PagedResponseDto<NearbyStoreResponseDto> stores = findNearbyStores(params);
+
+        double radiusInMetres = convertKmToMetres(params.getRadiusInKm());
+        Map<String, Long> tagFacets = storeMapper.toTagFacets(
+                storeQueryService.countNearbyStoresPerTag(params.getLatitude(), params.getLongitude(), radiusInMetres));
+        log.info("Computed {} tag facet(s) for nearby search", tagFacets.size());
+
+        return new NearbyStoreFacetsResponseDto(stores, tagFacets);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public PagedResponseDto<NearbyStoreResponseDto> findNearbyStoresWithProductName(NearbyStoreSearchParams params, String productName) {
@@ -73,19 +123,21 @@ public class NearbyStoreService implements INearbyStoreService {
     }
 
     @Override
-    public List<NearbyStoreResponseDto> searchNearbyWithFullTextSearchAndProductInStock(String query, double lat, double lon, double radiusInKm) {
-        log.info("FTS Nearby store search | Query: '{}' | Lat: {} | Lon: {} | Radius: {}km", query, lat, lon, radiusInKm);
+    public PagedResponseDto<NearbyStoreResponseDto> searchNearbyWithFullTextSearchAndProductInStock(String query, double lat, double lon, double radiusInKm, int page, int size) {
+        log.info("FTS Nearby store search | Query: '{}' | Lat: {} | Lon: {} | Radius: {}km | Page: {} | Size: {}", query, lat, lon, radiusInKm, page, size);
 
         double radiusInMetres = convertKmToMetres(radiusInKm);
+        //ordering is the hybrid score computed in the query, so no Sort here. Every row on the page is ranked, keep it small
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_FTS_PAGE_SIZE));
 
-        List<StoreProjection> results = storeQueryService.searchNearbyWithByFullTextSearchAndProductInStock(query, lat, lon, radiusInMetres);
+        Page<StoreProjection> resultPage = storeQueryService.searchNearbyWithByFullTextSearchAndProductInStock(query, lat, lon, radiusInMetres, pageable);
 
-        if (results.isEmpty()) {
+        if (resultPage.isEmpty()) {
             log.warn("No FTS match for: {}", query);
             throw new ResourceNotFoundException("No Nearby stores matching: " + query);
         }
 
-        return storeMapper.toNearbyStoreDtos(results);
+        return storeMapper.toPagedResponseDto(resultPage);
     }
 
     @Override
@@ -127,6 +179,106 @@ public class NearbyStoreService implements INearbyStoreService {
         ).toList();
     }
 
+    @Override
+    public StoreClustersResponseDto findStoreClusters(BoundingBoxParams box, int zoom) {
+        storeUtils.validateBoundingBox(box);
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException(format("Zoom must be between 0 and %d", MAX_ZOOM));
+        }
+        //a cell is clusterCellSizePx wide on screen whatever the zoom, so clusters keep the same visual density
+        double cellSizeInMetres = WORLD_WIDTH_IN_METRES / (TILE_SIZE_PX * Math.pow(2, zoom)) * clusterCellSizePx;
+
+        //one extra row tells us whether the cap cut anything off
+        List<StoreClusterProjection> rows = storeQueryService.clusterStoresInBoundingBox(box, cellSizeInMetres, maxClusters + 1);
+        //counted by the query over every cell, the rows we get back are already capped
+        long totalStores = rows.isEmpty() ? 0 : rows.get(0).getTotal_stores();
+        List<StoreClusterDto> clusters = rows.stream()
+                .map(StoreClusterDto::from)
+                .toList();
+        boolean truncated = clusters.size() > maxClusters;
+        if (truncated) {
+            clusters = clusters.subList(0, maxClusters);
+        }
+        log.info("Clustered {} store(s) into {} cluster(s) at zoom {} (cell {} m, truncated={})",
+                totalStores, clusters.size(), zoom, Math.round(cellSizeInMetres), truncated);
+
+        return new StoreClustersResponseDto(zoom, cellSizeInMetres, totalStores, truncated, clusters);
+    }
+
+    //no radius, so no "nothing found, try a bigger radius" round trips: sparse and dense areas cost the same
+    @Override
+    public List<NearbyStoreResponseDto> findNearestStores(double latitude, double longitude, Integer limit, Long productId) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be within -90..90 and longitude within -180..180");
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        int cap = limit == null ? defaultNearestResults : Math.min(limit, maxNearestResults);
+
+        List<StoreProjection> results = storeQueryService.findNearestStores(latitude, longitude, productId, cap);
+        log.info("Found {} nearest store(s) to (lat={}, lon={}), productId={}", results.size(), latitude, longitude, productId);
+        return storeMapper.toNearbyStoreDtos(results);
+    }
+
+    @Override
+    public BatchNearestStoresResponseDto findNearestStoresForOrigins(BatchNearestStoresRequestDto request) {
+        List<BatchNearestStoresRequestDto.Origin> origins = request.origins();
+        if (origins == null || origins.isEmpty()) {
+            throw new IllegalArgumentException("At least one origin is required");
+        }
+        if (origins.size() > maxBatchOrigins) {
+            throw new IllegalArgumentException(format("At most %d origins per request, got %d", maxBatchOrigins, origins.size()));
+        }
+        for (BatchNearestStoresRequestDto.Origin origin : origins) {
+            if (origin == null || origin.latitude() == null || origin.longitude() == null
+                    || origin.latitude() < -90 || origin.latitude() > 90 || origin.longitude() < -180 || origin.longitude() > 180) {
+                throw new IllegalArgumentException("Every origin needs a latitude within -90..90 and a longitude within -180..180");
+            }
+        }
+        if (request.limit() != null && request.limit() < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        int cap = request.limit() == null ? defaultNearestResults : Math.min(request.limit(), maxNearestResults);
+
+        List<OriginStoreProjection> rows = storeQueryService.findNearestStoresForOrigins(origins, request.productId(), cap);
+
+        //rows are already ordered by origin then distance, just split them per origin (origin_index is 1 based)
+        Map<Long, List<StoreProjection>> rowsPerOrigin = new HashMap<>();
+        for (OriginStoreProjection row : rows) {
+            rowsPerOrigin.computeIfAbsent(row.getOrigin_index(), index -> new ArrayList<>()).add(row);
+        }
+        List<OriginNearestStoresDto> results = new ArrayList<>(origins.size());
+        for (int i = 0; i < origins.size(); i++) {
+            BatchNearestStoresRequestDto.Origin origin = origins.get(i);
+            List<StoreProjection> stores = rowsPerOrigin.getOrDefault((long) i + 1, List.of());
+            results.add(new OriginNearestStoresDto(i, origin.latitude(), origin.longitude(), storeMapper.toNearbyStoreDtos(stores)));
+        }
+        log.info("Batch nearest: {} origin(s), {} store row(s), limit {} per origin, productId={}", origins.size(), rows.size(), cap, request.productId());
+
+        return new BatchNearestStoresResponseDto(origins.size(), cap, request.productId(), results);
+    }
+
+    @Override
+    public ViewportStoresResponseDto findStoresInViewport(BoundingBoxParams box, String tag, Long productId, Integer limit) {
+        storeUtils.validateBoundingBox(box);
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        int cap = limit == null ? maxViewportResults : Math.min(limit, maxViewportResults);
+        String tagFilter = tag == null || tag.isBlank() ? null : tag.trim();
+
+        //one extra row tells us whether the cap cut anything off
+        List<StoreProjection> results = storeQueryService.searchStoresInBoundingBox(box, tagFilter, productId, cap + 1);
+        boolean truncated = results.size() > cap;
+        if (truncated) {
+            results = results.subList(0, cap);
+        }
+        log.info("Found {} store(s) in viewport (tag={}, productId={}, truncated={})", results.size(), tagFilter, productId, truncated);
+
+        return new ViewportStoresResponseDto(storeMapper.toNearbyStoreDtos(results), results.size(), truncated);
+    }
+
     private Pageable buildPageable(int page, int size, String sortBy, String direction) {
         Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         return PageRequest.of(page, size, sort);
@@ -40,7 +40,7 @@ public interface IStoreService {
 
 //    List<NearbyStoreResponseDto> findNearbyStoresByProductId(double latitude, double longitude, double radiusInKm, Long productId);
 
-    List<StoreWithInventoryDto> searchStoresUsingStoreName(String storeName);
+    PagedResponseDto<StoreWithInventoryDto> searchStoresUsingStoreName(String storeName, int page, int size);
 
     void assignTagsToStore(Long storeId, Collection<String> tagNames);
 
@@ -4,10 +4,13 @@ import com.ahmad.ProductFinder.dtos.entityDto.AddressDto;
 import com.ahmad.ProductFinder.dtos.response.NearbyStoreResponseDto;
 import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
 import com.ahmad.ProductFinder.projection.StoreProjection;
+import com.ahmad.ProductFinder.projection.TagFacetProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class StoreMapper {
@@ -35,6 +38,12 @@ public class StoreMapper {
                 .build();
     }
 
+    //keeps the DB ordering (most common tag first)
+    public Map<String, Long> toTagFacets(List<TagFacetProjection> facets){
+        Map<String, Long> result = new LinkedHashMap<>();
+        facets.forEach(facet -> result.put(facet.getTag(), facet.getStore_count()));
+        return result;
+    }
 
     private NearbyStoreResponseDto mapToDto(StoreProjection storeProjection){
         return new NearbyStoreResponseDto(
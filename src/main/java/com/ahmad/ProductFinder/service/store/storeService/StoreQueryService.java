@@ -1,41 +1,110 @@
     package com.ahmad.ProductFinder.service.store.storeService;
 
+    import com.ahmad.ProductFinder.dtos.request.BatchNearestStoresRequestDto;
+    import com.ahmad.ProductFinder.dtos.request.BoundingBoxParams;
     import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+    import com.ahmad.ProductFinder.models.Inventory;
+    import com.ahmad.ProductFinder.models.Store;
+    import com.ahmad.ProductFinder.projection.OriginStoreProjection;
+    import com.ahmad.ProductFinder.projection.StoreClusterProjection;
     import com.ahmad.ProductFinder.projection.StoreProjection;
+    import com.ahmad.ProductFinder.projection.TagFacetProjection;
+    import com.ahmad.ProductFinder.repositories.InventoryRepository;
     import com.ahmad.ProductFinder.repositories.ProductRepository;
+    import com.ahmad.ProductFinder.repositories.StoreAvailabilityRepository;
     import com.ahmad.ProductFinder.repositories.StoreRepository;
+    import com.ahmad.ProductFinder.service.productService.ProductSearchQuery;
+    import com.ahmad.ProductFinder.service.search.IStoreSearchEngine;
     import lombok.extern.slf4j.Slf4j;
+    import org.springframework.beans.factory.annotation.Value;
     import org.springframework.data.domain.Page;
     import org.springframework.data.domain.Pageable;
     import org.springframework.stereotype.Component;
+    import org.springframework.transaction.annotation.Transactional;
 
+    import java.util.Collection;
     import java.util.Collections;
+    import java.util.Comparator;
     import java.util.List;
+    import java.util.Map;
+    import java.util.stream.Collectors;
 
     import static java.lang.String.format;
 
+    //read only end to end, so with datasource.replicas.enabled every search here runs on a replica
     @Slf4j
     @Component
+    @Transactional(readOnly = true)
     public class StoreQueryService {
+        //same cap as the LIMIT in StoreRepository.searchByText
+        private static final int FULL_TEXT_SEARCH_LIMIT = 10;
+        private static final int NEAREST_CANDIDATE_SLACK = 10;
+
         private final StoreRepository storeRepository;
         private final ProductRepository productRepository;
+        private final InventoryRepository inventoryRepository;
+        private final StoreAvailabilityRepository storeAvailabilityRepository;
+        private final IStoreSearchEngine searchEngine;
+
+        //hybrid FTS + proximity ranking knobs, see StoreRepository.searchNearbyStoresByFullTextSearchAndProductInStock
+        @Value("${search.hybrid.text-weight:0.7}")
+        private double textWeight;
+        @Value("${search.hybrid.distance-weight:0.3}")
+        private double distanceWeight;
+        @Value("${search.hybrid.distance-decay-metres:2000}")
+        private double distanceDecayInMetres;
+        @Value("${stores.search.max-products-per-store:50}")
+        private int maxProductsPerStore;
 
-        public StoreQueryService(StoreRepository storeRepository, ProductRepository productRepository) {
+        public StoreQueryService(StoreRepository storeRepository, ProductRepository productRepository, InventoryRepository inventoryRepository,
+                                 StoreAvailabilityRepository storeAvailabilityRepository, IStoreSearchEngine searchEngine) {
             this.storeRepository = storeRepository;
             this.productRepository = productRepository;
+            this.inventoryRepository = inventoryRepository;
+            this.storeAvailabilityRepository = storeAvailabilityRepository;
+            this.searchEngine = searchEngine;
         }
 
+        //product name is matched through the product FTS index (prefix terms), no exact-name lookup first
+        //product near me searches read the store_availability read model, not store + inventory + product
         public Page<StoreProjection> searchNearbyStoresWithProductName(double latitude, double longitude, double radiusInMetres,Pageable pageable, String productName) {
-            productRepository.findByNameIgnoreCase(productName)
-                    .orElseThrow(() -> {
-                        log.error("Product with name {} not found", productName);
-                        return new ResourceNotFoundException(format("No products found with name: %s ", productName));
-                    });
+            String productTsQuery = ProductSearchQuery.toPrefixTsQuery(productName);
+            return storeAvailabilityRepository.searchNearbyStoresWithProductName(latitude, longitude, productTsQuery, radiusInMetres,pageable);
+        }
 
-            return storeRepository.searchNearbyStoresWithProductName(latitude, longitude, productName, radiusInMetres,pageable);
+        public Page<Store> searchStoresByName(String storeName, Pageable pageable){
+            return storeRepository.searchStoreByName(escapeLikePattern(storeName), pageable);
         }
 
+        //'!' is the ESCAPE character of the LIKE in searchStoreByName
+        private static String escapeLikePattern(String value) {
+            return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        }
+
+        //store id -> in stock inventory (at most maxProductsPerStore each), two queries for the whole page
+        public Map<Long, List<Inventory>> findInStockInventoryByStore(Collection<Long> storeIds){
+            if (storeIds.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            List<Long> inventoryIds = inventoryRepository.findInStockIdsByStoreIdIn(storeIds.toArray(Long[]::new), maxProductsPerStore);
+            if (inventoryIds.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            return inventoryRepository.findWithProductByIdIn(inventoryIds)
+                    .stream()
+                    .sorted(Comparator.comparing(Inventory::getPrice, Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Inventory::getId))
+                    .collect(Collectors.groupingBy(inv -> inv.getStore().getId()));
+        }
+
+        //lucene index when it's enabled and built, SQL otherwise (and whenever the index fails)
         public List<StoreProjection> fullTextSearch(String query){
+            if (searchEngine.isAvailable()) {
+                try {
+                    return searchEngine.fullTextSearch(query, FULL_TEXT_SEARCH_LIMIT);
+                } catch (RuntimeException e) {
+                    log.warn("Search index failed for query '{}', falling back to SQL", query, e);
+                }
+            }
             return storeRepository.searchByText(query);
         }
 
@@ -46,7 +115,7 @@
                         log.error("Product with ID {} not found", productId);
                         return new ResourceNotFoundException(format("No products found with ID: %d ", productId));
                     });
-            return storeRepository.findNearbyStoresWithProductId(latitude, longitude, productId, radiusInMetres).orElse(Collections.emptyList());
+            return storeAvailabilityRepository.findNearbyStoresWithProductId(latitude, longitude, productId, radiusInMetres);
 
         }
 
@@ -54,7 +123,59 @@
             return storeRepository.getNearbyStores(latitude, longitude, radiusInMetres,pageable);
         }
 
-        public List<StoreProjection> searchNearbyWithByFullTextSearchAndProductInStock(String query, double lat, double lon, double distanceKm){
-            return storeRepository.searchNearbyStoresByFullTextSearchAndProductInStock(query,lat,lon,distanceKm);
+        public List<TagFacetProjection> countNearbyStoresPerTag(double latitude, double longitude, double radiusInMetres){
+            return storeRepository.countNearbyStoresPerTag(latitude, longitude, radiusInMetres);
+        }
+
+        /* k nearest stores (optionally only those with productId in stock). The KNN scan ranks by planar degrees, which
+        stretch east-west distances by 1 / cos(latitude), so it fetches enough candidates to cover that before the exact
+        geodesic re-rank: about limit / cos^2(latitude) for evenly spread stores, plus a little slack
+         */
+        public List<StoreProjection> findNearestStores(double latitude, double longitude, Long productId, int limit){
+            double cosLatitude = Math.max(Math.cos(Math.toRadians(latitude)), 0.1);
+            int candidates = (int) Math.ceil(limit / (cosLatitude * cosLatitude)) + NEAREST_CANDIDATE_SLACK;
+            return storeRepository.findNearestStores(latitude, longitude, productId, candidates, limit);
+        }
+
+        /* findNearestStores for a batch of origins, one query for all of them. The candidate over-fetch is sized for the
+        origin furthest from the equator so every origin gets enough, the arrays are built here from doubles so
+        nothing user supplied ends up in the literal
+         */
+        public List<OriginStoreProjection> findNearestStoresForOrigins(List<BatchNearestStoresRequestDto.Origin> origins, Long productId, int limit){
+            double maxAbsLatitude = origins.stream().mapToDouble(origin -> Math.abs(origin.latitude())).max().orElse(0);
+            double cosLatitude = Math.max(Math.cos(Math.toRadians(maxAbsLatitude)), 0.1);
+            int candidates = (int) Math.ceil(limit / (cosLatitude * cosLatitude)) + NEAREST_CANDIDATE_SLACK;
+            return storeRepository.findNearestStoresForOrigins(
+                    toArrayLiteral(origins.stream().map(BatchNearestStoresRequestDto.Origin::latitude).toList()),
+                    toArrayLiteral(origins.stream().map(BatchNearestStoresRequestDto.Origin::longitude).toList()),
+                    productId, candidates, limit);
+        }
+
+        //tag and productId are optional filters, null skips them
+        public List<StoreProjection> searchStoresInBoundingBox(BoundingBoxParams box, String tag, Long productId, int maxResults){
+            return storeRepository.findStoresInBoundingBox(box.getMinLatitude(), box.getMinLongitude(),
+                    box.getMaxLatitude(), box.getMaxLongitude(), tag, productId, maxResults);
+        }
+
+        public List<StoreClusterProjection> clusterStoresInBoundingBox(BoundingBoxParams box, double cellSizeInMetres, int maxClusters){
+            return storeRepository.clusterStoresInBoundingBox(box.getMinLatitude(), box.getMinLongitude(),
+                    box.getMaxLatitude(), box.getMaxLongitude(), cellSizeInMetres, maxClusters);
+        }
+
+        public Page<StoreProjection> searchNearbyWithByFullTextSearchAndProductInStock(String query, double lat, double lon, double distanceInMetres, Pageable pageable){
+            if (searchEngine.isAvailable()) {
+                try {
+                    return searchEngine.searchNearbyInStock(query, lat, lon, distanceInMetres, pageable);
+                } catch (RuntimeException e) {
+                    log.warn("Search index failed for nearby query '{}', falling back to SQL", query, e);
+                }
+            }
+            return storeRepository.searchNearbyStoresByFullTextSearchAndProductInStock(query, lat, lon, distanceInMetres,
+                    textWeight, distanceWeight, distanceDecayInMetres, pageable);
+        }
+
+        //postgres array literal, e.g. {6.5244,6.6018}. Double.toString is locale independent
+        private String toArrayLiteral(List<Double> values){
+            return values.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
         }
     }
@@ -1,5 +1,6 @@
 package com.ahmad.ProductFinder.service.store.storeService;
 
+import com.ahmad.ProductFinder.configuration.CacheNames;
 import com.ahmad.ProductFinder.dtos.request.CreateStoreRequestDto;
 import com.ahmad.ProductFinder.dtos.request.UpdateStoreRequestDto;
 import com.ahmad.ProductFinder.dtos.response.NearbyStoreResponseDto;
@@ -8,17 +9,28 @@ import com.ahmad.ProductFinder.dtos.response.StoreResponseDto;
 import com.ahmad.ProductFinder.dtos.response.StoreWithInventoryDto;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+import com.ahmad.ProductFinder.models.Inventory;
 import com.ahmad.ProductFinder.models.Store;
 import com.ahmad.ProductFinder.models.Tag;
 import com.ahmad.ProductFinder.models.User;
 import com.ahmad.ProductFinder.projection.StoreProjection;
 import com.ahmad.ProductFinder.repositories.StoreRepository;
 import com.ahmad.ProductFinder.service.store.utils.StoreUtils;
+import com.ahmad.ProductFinder.service.tagService.TagDictionary;
+import com.ahmad.ProductFinder.service.heatmapService.IProductHeatmapService;
+import com.ahmad.ProductFinder.service.store.availabilityService.IStoreAvailabilityService;
+import com.ahmad.ProductFinder.service.store.tileService.IStoreTileService;
 import com.ahmad.ProductFinder.service.tagService.TagService;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Point;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,27 +38,46 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class StoreService implements IStoreService {
+    private static final int MAX_NAME_SEARCH_PAGE_SIZE = 50;
+    //tag search orders the dictionary can serve, it keeps ids and names of tagged stores
+    private static final Set<String> IN_MEMORY_TAG_SORTS = Set.of("id", "name");
 
     private final StoreRepository storeRepository;
     private final StoreMapper storeMapper;
     private final StoreQueryService storeQueryService;
     private final TagService tagService;
     private final StoreUtils storeUtils;
-
-    public StoreService(StoreRepository storeRepository, StoreMapper storeMapper, StoreQueryService storeQueryService, TagService tagService, StoreUtils storeUtils) {
+    private final TagDictionary tagDictionary;
+    private final IStoreTileService storeTileService;
+    private final IProductHeatmapService productHeatmapService;
+    private final IStoreAvailabilityService storeAvailabilityService;
+
+    public StoreService(StoreRepository storeRepository, StoreMapper storeMapper, StoreQueryService storeQueryService, TagService tagService, StoreUtils storeUtils, TagDictionary tagDictionary,
+                        IStoreTileService storeTileService, IProductHeatmapService productHeatmapService,
+                        IStoreAvailabilityService storeAvailabilityService) {
         this.storeRepository = storeRepository;
         this.storeMapper = storeMapper;
         this.storeQueryService = storeQueryService;
         this.tagService = tagService;
         this.storeUtils = storeUtils;
+        this.tagDictionary = tagDictionary;
+        this.storeTileService = storeTileService;
+        this.productHeatmapService = productHeatmapService;
+        this.storeAvailabilityService = storeAvailabilityService;
     }
 
     //User clicks map in the FE , FE gets coordinates that is lat and long send to BE ,
@@ -54,6 +85,7 @@ public class StoreService implements IStoreService {
     @Transactional
     @Override
     @PreAuthorize("hasAnyRole('USER','STORE_OWNER','ADMIN')")
+    @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
     public StoreResponseDto createStore(CreateStoreRequestDto request) {
         log.info("Creating store for request: {}", request);
 
@@ -80,6 +112,10 @@ public class StoreService implements IStoreService {
     @Transactional
     @Override
     @PreAuthorize("hasRole('STORE_OWNER')")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.STORES, key = "#storeId"),
+            @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
+    })
     public StoreResponseDto updateStore(Long storeId, UpdateStoreRequestDto dto) {
         log.info("Updating store ID: {} with data: {}", storeId, dto);
 
@@ -90,6 +126,9 @@ public class StoreService implements IStoreService {
         }
 
         store.setDescription(dto.getDescription());
+        //map tiles at the new location are evicted by the entity listener, the old ones only we know about
+        storeTileService.evictTilesContaining(store.getLongitude(), store.getLatitude());
+        String oldHeatmapCell = productHeatmapService.cellOf(store.getLatitude(), store.getLongitude());
         store.setLatitude(dto.getLatitude());
         store.setLongitude(dto.getLongitude());
         Point location = storeUtils.convertCoordinatesToPoint(dto.getLongitude(), dto.getLatitude());
@@ -97,41 +136,74 @@ public class StoreService implements IStoreService {
         store.setUpdatedAt(LocalDateTime.now());
 
         store = storeRepository.save(store);
+        tagDictionary.renameStore(storeId, store.getName());
+        //store row before heatmap cell locks, same order as the inventory writes
+        storeAvailabilityService.syncStore(storeId);
+        String newHeatmapCell = productHeatmapService.cellOf(store.getLatitude(), store.getLongitude());
+        if (!newHeatmapCell.equals(oldHeatmapCell)) {
+            productHeatmapService.refreshCells(productHeatmapService.findStoreProductIds(storeId), List.of(oldHeatmapCell, newHeatmapCell));
+        }
         log.info("Store updated: ID={}", storeId);
 
         return StoreResponseDto.from(store);
     }
 
     @Override
+    @Transactional
     @PreAuthorize("hasAnyRole('STORE_OWNER','ADMIN')")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.STORES, key = "#storeId"),
+            @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
+    })
     public void deleteStore(Long storeId) {
         log.info("Deleting store permanently with ID: {}", storeId);
-        storeUtils.fetchStoreFromDb(storeId);
+        Store store = storeUtils.fetchStoreFromDb(storeId);
+        //the inventory goes with the store, so collect what it carried first
+        List<Long> productIds = productHeatmapService.findStoreProductIds(storeId);
+        String heatmapCell = productHeatmapService.cellOf(store.getLatitude(), store.getLongitude());
         storeRepository.deleteById(storeId);
+        storeAvailabilityService.syncStore(storeId);
+        productHeatmapService.refreshCells(productIds, List.of(heatmapCell));
+        tagDictionary.removeStore(storeId);
         log.info("Store with ID {} deleted", storeId);
     }
 
+    @Transactional
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.STORES, key = "#storeId"),
+            @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
+    })
     public void disableStore(long storeId) {
         log.info("Disabling store ID: {}", storeId);
         Store store = storeUtils.fetchStoreFromDb(storeId);
         store.setActive(false);
         store.setUpdatedAt(LocalDateTime.now());
         storeRepository.save(store);
+        storeAvailabilityService.syncStore(storeId);
+        productHeatmapService.refreshCells(productHeatmapService.findStoreProductIds(storeId), store.getLatitude(), store.getLongitude());
         log.info("Store ID {} disabled", storeId);
     }
 
+    @Transactional
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.STORES, key = "#storeId"),
+            @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
+    })
     public StoreResponseDto restoreStore(Long storeId) {
         log.info("Restoring store ID: {}", storeId);
         Store store = storeUtils.fetchStoreFromDb(storeId);
         store.setActive(true);
         storeRepository.save(store);
+        storeAvailabilityService.syncStore(storeId);
+        productHeatmapService.refreshCells(productHeatmapService.findStoreProductIds(storeId), store.getLatitude(), store.getLongitude());
         log.info("Store ID {} restored", storeId);
         return StoreResponseDto.from(store);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.STORES, key = "#storeId")
     public StoreResponseDto getStoreUsingStoreId(Long storeId) {
         log.info("Fetching store by ID: {}", storeId);
         Store store = storeUtils.fetchActiveStoreFromDb(storeId);
@@ -139,6 +211,7 @@ public class StoreService implements IStoreService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.STORE_PAGES)
     public PagedResponseDto<StoreResponseDto> getAllStores(int page, int size, String sortBy, String direction) {
         log.info("Retrieving all stores. Page: {}, Size: {}, SortBy: {}, Direction: {}", page, size, sortBy, direction);
         Pageable pageable = storeUtils.buildPageable(page, size, sortBy, direction);
@@ -148,21 +221,30 @@ public class StoreService implements IStoreService {
     }
 
     @Override
-    public List<StoreWithInventoryDto> searchStoresUsingStoreName(String storeName) {
-        log.info("Searching stores by name: {}", storeName);
+    @Transactional(readOnly = true)
+    public PagedResponseDto<StoreWithInventoryDto> searchStoresUsingStoreName(String storeName, int page, int size) {
+        log.info("Searching stores by name: {} | page: {} | size: {}", storeName, page, size);
 
         if (storeName == null || storeName.trim().length() < 3) {
             throw new IllegalArgumentException("Search term must be at least 3 characters");
         }
 
-        List<Store> stores = storeRepository.searchStoreByName(storeName);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_NAME_SEARCH_PAGE_SIZE), Sort.by("name").ascending());
+        Page<Store> storePage = storeQueryService.searchStoresByName(storeName.trim(), pageable);
 
-        if (stores.isEmpty()) {
+        if (storePage.isEmpty()) {
             log.warn("No stores found with name: {}", storeName);
             throw new ResourceNotFoundException("No stores found with name : " + storeName);
         }
 
-        return stores.stream().map(StoreWithInventoryDto::from).toList();
+        //one query for every store's in stock products on this page, not one (or more) per store
+        Map<Long, List<Inventory>> inventoryByStore = storeQueryService.findInStockInventoryByStore(
+                storePage.getContent().stream().map(Store::getId).toList());
+
+        List<StoreWithInventoryDto> dtoList = storePage.getContent().stream()
+                .map(store -> StoreWithInventoryDto.from(store, inventoryByStore.getOrDefault(store.getId(), List.of())))
+                .toList();
+        return storeUtils.buildPagedResponse(dtoList, storePage);
     }
 
     @Override
@@ -180,6 +262,10 @@ public class StoreService implements IStoreService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.STORES, key = "#storeId"),
+            @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
+    })
     public void removeTagsFromStore(Long storeId, String tagName) {
         log.info("Removing tag '{}' from store ID: {}", tagName, storeId);
         Store store = storeUtils.fetchStoreFromDb(storeId);
@@ -194,7 +280,9 @@ public class StoreService implements IStoreService {
         } else {
             log.info("Removing {} tag(s) from store ID: {}", tagsToDelete.size(), storeId);
             tags.removeAll(tagsToDelete);
+            store.setUpdatedAt(LocalDateTime.now()); //tag-only changes don't dirty the store itself, this makes @PostUpdate (search index) fire
             storeRepository.save(store);
+            tagDictionary.removeStoreTags(storeId, tagsToDelete);
             log.info("Tag '{}' removed successfully from store ID: {}", trimmedTag, storeId);
         }
     }
@@ -204,9 +292,17 @@ public class StoreService implements IStoreService {
     public PagedResponseDto<StoreResponseDto> findStoresByTags(Set<String> tagNames, boolean matchAll, Pageable pageable) {
         log.info("Filtering stores by tags: {} | matchAll: {}", tagNames, matchAll);
 
-        Page<Store> storePage = matchAll
-                ? storeRepository.findStoresWithAllTags(tagNames, tagNames.size(), pageable)
-                : storeRepository.findStoresWithAnyTags(tagNames, pageable);
+        Set<String> normalizedTagNames = storeUtils.normalizeTagNames(tagNames);
+        //match in memory when every tag is known and the page is ordered by name (the default) and/or id: the matching ids
+        //are sorted and sliced here and the DB only loads the stores on the page. Unknown tag or any other order -> join query
+        Optional<BitSet> tagBits = tagDictionary.isLoaded() && isSortableInMemory(pageable.getSort())
+                ? tagDictionary.toBitSet(normalizedTagNames)
+                : Optional.empty();
+        Page<Store> storePage = tagBits
+                .map(bits -> pageOfStoreIds(tagDictionary.findStoreIds(bits, matchAll), pageable))
+                .orElseGet(() -> matchAll
+                        ? storeRepository.findStoresWithAllTags(normalizedTagNames, normalizedTagNames.size(), pageable)
+                        : storeRepository.findStoresWithAnyTags(normalizedTagNames, pageable));
 
         if (storePage.isEmpty()) {
             log.warn("No stores found for tags: {}", tagNames);
@@ -217,19 +313,60 @@ public class StoreService implements IStoreService {
         return storeUtils.buildPageMetadata(dtoList, storePage);
     }
 
+    private static boolean isSortableInMemory(Sort sort) {
+        return sort.stream().allMatch(order -> IN_MEMORY_TAG_SORTS.contains(order.getProperty()));
+    }
+
+    /* names compare ignoring case (not the DB collation, close enough for a listing), id breaks ties so pages don't
+    overlap when names repeat
+     */
+    private Comparator<Long> storeIdOrder(Sort sort) {
+        Comparator<Long> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Long> byProperty = order.getProperty().equals("name")
+                    ? Comparator.comparing(tagDictionary::storeName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    : Comparator.naturalOrder();
+            comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+        }
+        return comparator.thenComparing(Comparator.naturalOrder());
+    }
+
+    private Page<Store> pageOfStoreIds(Collection<Long> storeIds, Pageable pageable) {
+        List<Long> pageIds = storeIds.stream()
+                .sorted(storeIdOrder(pageable.getSort()))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+
+        Map<Long, Store> storesById = storeRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Store::getId, Function.identity()));
+        //findAllById doesn't keep the order, and a store deleted since the match is just skipped
+        List<Store> stores = pageIds.stream()
+                .map(storesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(stores, pageable, storeIds.size());
+    }
+
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.STORES, key = "#storeId"),
+            @CacheEvict(cacheNames = CacheNames.STORE_PAGES, allEntries = true)
+    })
     public void assignTagsToStore(Long storeId, Collection<String> tagNames) {
         log.info("Assigning tags {} to store ID: {}", tagNames, storeId);
 
         Store store = storeUtils.fetchStoreFromDb(storeId);
 
-        Collection<Tag> normalizedTags = tagService.findOrCreateTags(tagNames);
+        Collection<Tag> normalizedTags = tagService.findOrCreateTagReferences(tagNames);
         log.debug("Resolved {} tags from input: {}", normalizedTags.size(), tagNames);
 
         store.getTags().addAll(normalizedTags);
+        store.setUpdatedAt(LocalDateTime.now()); //see removeTagsFromStore
         log.info("Tags assigned to store ID: {}", storeId);
         storeRepository.save(store);
+        tagDictionary.addStoreTags(storeId, store.getName(), normalizedTags);
     }
 }
 
@@ -0,0 +1,9 @@
+package com.ahmad.ProductFinder.service.store.tileService;
+
+public interface IStoreTileService {
+    byte[] getStoreTile(int z, int x, int y, String tag, Long productId);
+
+    void evictTilesContaining(double longitude, double latitude);
+
+    void evictProductTiles(Long productId);
+}
@@ -0,0 +1,40 @@
+package com.ahmad.ProductFinder.service.store.tileService;
+
+import com.ahmad.ProductFinder.models.Inventory;
+import com.ahmad.ProductFinder.models.Store;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/***
+ * evicts the cached map tiles a store / inventory write shows up on. Store moves also evict the old location,
+ * StoreService.updateStore does that since the listener only sees the new state
+ */
+@Component
+public class StoreTileCacheEntityListener {
+    //provider for the same reason as SearchIndexEntityListener, hibernate builds listeners early
+    private final ObjectProvider<IStoreTileService> tileService;
+
+    public StoreTileCacheEntityListener(ObjectProvider<IStoreTileService> tileService) {
+        this.tileService = tileService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        IStoreTileService tiles = tileService.getIfAvailable();
+        if (tiles == null) {
+            return;
+        }
+        switch (entity) {
+            case Store store -> tiles.evictTilesContaining(store.getLongitude(), store.getLatitude());
+            //only product filtered tiles depend on stock, getId() doesn't initialise the lazy product
+            case Inventory inventory -> tiles.evictProductTiles(inventory.getProduct().getId());
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ahmad.ProductFinder.service.store.tileService;
+
+import java.util.Locale;
+
+/***
+ * cache key of one rendered tile: tile address + the optional filters (tag lower cased so "Pharmacy" and "pharmacy"
+ * share an entry)
+ */
+public record StoreTileKey(int z, int x, int y, String tag, Long productId) {
+
+    public static StoreTileKey of(int z, int x, int y, String tag, Long productId) {
+        return new StoreTileKey(z, x, y, normalizeTag(tag), productId);
+    }
+
+    static String normalizeTag(String tag) {
+        return tag == null || tag.isBlank() ? null : tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    //is the point drawn on this tile, buffer (fraction of a tile) included. Web mercator tile maths, same grid as ST_TileEnvelope
+    boolean covers(double longitude, double latitude, double buffer) {
+        double tiles = 1 << z;
+        double tileX = (longitude + 180) / 360 * tiles;
+        double latitudeInRadians = Math.toRadians(latitude);
+        double tileY = (1 - Math.log(Math.tan(latitudeInRadians) + 1 / Math.cos(latitudeInRadians)) / Math.PI) / 2 * tiles;
+        return tileX >= x - buffer && tileX <= x + 1 + buffer
+                && tileY >= y - buffer && tileY <= y + 1 + buffer;
+    }
+}
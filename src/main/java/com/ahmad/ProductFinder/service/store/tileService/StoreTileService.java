@@ -0,0 +1,95 @@
+package com.ahmad.ProductFinder.service.store.tileService;
+
+import com.ahmad.ProductFinder.configuration.CacheNames;
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
+import com.ahmad.ProductFinder.repositories.StoreRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+
+/***
+ * Mapbox vector tiles of the active stores for the map view, built by PostGIS (StoreRepository.findStoreTile) and
+ * cached per tile + filter. Writes evict only the cached tiles they can show up on (StoreTileCacheEntityListener):
+ * a store change evicts every tile its location falls on, an inventory change every tile filtered on that product.
+ */
+@Slf4j
+@Service
+public class StoreTileService implements IStoreTileService {
+    private static final int MAX_ZOOM = 22;
+    //render buffer of the tiles, ST_AsMVTGeom(..., 4096, 64) in StoreRepository.findStoreTile
+    private static final double TILE_BUFFER = 64.0 / 4096;
+
+    private final StoreRepository storeRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${tiles.max-features-per-tile:10000}")
+    private int maxFeaturesPerTile;
+
+    public StoreTileService(StoreRepository storeRepository, CacheManager cacheManager) {
+        this.storeRepository = storeRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    //empty tiles are cached too (empty array), most of the map has no stores. Not readOnly: a tile built on a lagging
+    //replica right after an evict would be cached with the old pins
+    @Override
+    @Cacheable(cacheNames = CacheNames.STORE_TILES,
+            key = "T(com.ahmad.ProductFinder.service.store.tileService.StoreTileKey).of(#z, #x, #y, #tag, #productId)")
+    public byte[] getStoreTile(int z, int x, int y, String tag, Long productId) {
+        if (z < 0 || z > MAX_ZOOM) {
+            throw new IllegalArgumentException(format("Zoom must be between 0 and %d", MAX_ZOOM));
+        }
+        int tilesPerSide = 1 << z;
+        if (x < 0 || x >= tilesPerSide || y < 0 || y >= tilesPerSide) {
+            throw new IllegalArgumentException(format("Tile %d/%d/%d does not exist, x and y must be between 0 and %d at zoom %d", z, x, y, tilesPerSide - 1, z));
+        }
+        byte[] tile = storeRepository.findStoreTile(z, x, y, StoreTileKey.normalizeTag(tag), productId, maxFeaturesPerTile);
+        log.debug("Built tile {}/{}/{} (tag={}, productId={}): {} bytes", z, x, y, tag, productId, tile == null ? 0 : tile.length);
+        return tile == null ? new byte[0] : tile;
+    }
+
+    @Override
+    public void evictTilesContaining(double longitude, double latitude) {
+        evictAfterCommit(key -> key.covers(longitude, latitude, TILE_BUFFER));
+    }
+
+    @Override
+    public void evictProductTiles(Long productId) {
+        evictAfterCommit(key -> productId.equals(key.productId()));
+    }
+
+    /* same timing as the TransactionAwareCacheManagerProxy evicts: after the commit, otherwise a reader could
+    rebuild the tile from the old rows between the evict and the commit
+     */
+    private void evictAfterCommit(Predicate<StoreTileKey> affected) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(affected);
+                }
+            });
+        } else {
+            evict(affected);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evict(Predicate<StoreTileKey> affected) {
+        Cache cache = cacheManager.getCache(CacheNames.STORE_TILES);
+        if (cache == null) {
+            return;
+        }
+        var tiles = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        tiles.asMap().keySet().removeIf(key -> key instanceof StoreTileKey tileKey && affected.test(tileKey));
+    }
+}
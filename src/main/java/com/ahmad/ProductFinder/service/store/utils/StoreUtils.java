@@ -1,15 +1,17 @@
 package com.ahmad.ProductFinder.service.store.utils;
 
+import com.ahmad.ProductFinder.dtos.request.BoundingBoxParams;
 import com.ahmad.ProductFinder.dtos.request.CreateStoreRequestDto;
 import com.ahmad.ProductFinder.dtos.response.PagedResponseDto;
 import com.ahmad.ProductFinder.dtos.response.StoreResponseDto;
 import com.ahmad.ProductFinder.embedded.Address;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.AlreadyExistsException;
+import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+import com.ahmad.ProductFinder.initializationStuffs.RoleRegistry;
 import com.ahmad.ProductFinder.models.Role;
 import com.ahmad.ProductFinder.models.Store;
 import com.ahmad.ProductFinder.models.User;
-import com.ahmad.ProductFinder.repositories.RoleRepository;
 import com.ahmad.ProductFinder.repositories.StoreRepository;
 import com.ahmad.ProductFinder.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
@@ -34,13 +36,13 @@ public class StoreUtils {
     private final GeometryFactory geometryFactory;
     private final UserRepository userRepository;
     private final StoreRepository storeRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
-    public StoreUtils(GeometryFactory geometryFactory, UserRepository userRepository, StoreRepository storeRepository, RoleRepository roleRepository) {
+    public StoreUtils(GeometryFactory geometryFactory, UserRepository userRepository, StoreRepository storeRepository, RoleRegistry roleRegistry) {
         this.geometryFactory = geometryFactory;
         this.userRepository = userRepository;
         this.storeRepository = storeRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
     }
 
     /***
@@ -79,7 +81,7 @@ public class StoreUtils {
         final String STORE_OWNER_ROLE = "STORE_OWNER";
         boolean alreadyHasStoreOwnerRole = user.getRoles().stream().anyMatch(role -> Objects.equals(role.getName(), STORE_OWNER_ROLE));
         if (!alreadyHasStoreOwnerRole) {
-            Role store_owner = roleRepository.findByName("STORE_OWNER").orElseThrow(() -> new ResourceNotFoundException("Role not found: " + STORE_OWNER_ROLE));
+            Role store_owner = roleRegistry.getRole(STORE_OWNER_ROLE);
             log.info("Role {} added for user: {}", STORE_OWNER_ROLE, user.getUsername());
             user.getRoles().add(store_owner);
             userRepository.save(user);
@@ -137,8 +139,8 @@ public class StoreUtils {
 
     //    @Transactional(readOnly = true)
 
-    public PagedResponseDto<StoreResponseDto> buildPagedResponse(List<StoreResponseDto> dtoList, Page<Store> storePage) {
-        return PagedResponseDto.<StoreResponseDto>builder()
+    public <T> PagedResponseDto<T> buildPagedResponse(List<T> dtoList, Page<Store> storePage) {
+        return PagedResponseDto.<T>builder()
                 .content(dtoList)
                 .pageNumber(storePage.getNumber())
                 .pageSize(storePage.getSize())
@@ -189,4 +191,14 @@ public class StoreUtils {
                 .map(names -> names.toLowerCase())
                 .collect(Collectors.toSet());
     }
+
+    //viewports crossing the antimeridian (min longitude > max longitude) aren't supported, the FE splits them
+    public void validateBoundingBox(BoundingBoxParams box) {
+        if (box.getMinLatitude() < -90 || box.getMaxLatitude() > 90 || box.getMinLongitude() < -180 || box.getMaxLongitude() > 180) {
+            throw new IllegalArgumentException("Bounding box must be within latitude -90..90 and longitude -180..180");
+        }
+        if (box.getMinLatitude() >= box.getMaxLatitude() || box.getMinLongitude() >= box.getMaxLongitude()) {
+            throw new IllegalArgumentException("Bounding box min latitude/longitude must be smaller than max latitude/longitude");
+        }
+    }
 }
@@ -0,0 +1,227 @@
+package com.ahmad.ProductFinder.service.tagService;
+
+import com.ahmad.ProductFinder.models.Tag;
+import com.ahmad.ProductFinder.repositories.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/***
+ * In-memory copy of the (small) tag table, loaded once at startup.
+ * Every tag gets a dense int id (its position in the snapshot) so each store's tags can be kept as a BitSet,
+ * that way any/all tag matching is done with bit operations instead of joining through store_tag. Tagged stores keep
+ * their name too, so a tag search page can be sorted by name (the endpoint default) or id without the DB.
+ * (the nearby tag facets stay a grouped SQL pass, they are counted over a radius the dictionary knows nothing about)
+ * The name -> id snapshot is copy-on-write (tags are rarely created), per store entries are swapped whole on every change.
+ * Callers must treat a miss (unknown name or dictionary not loaded yet) as "go ask the DB".
+ * Writes made inside a transaction are only applied once it commits, so a rollback can't leave ghost tags behind.
+ */
+@Slf4j
+@Component
+public class TagDictionary implements ApplicationListener<ApplicationReadyEvent> {
+    private final TagRepository tagRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded = false;
+    private final Map<Long, TaggedStore> storeTags = new ConcurrentHashMap<>();
+
+    public TagDictionary(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        reload();
+    }
+
+    public synchronized void reload() {
+        Snapshot fresh = Snapshot.EMPTY.with(tagRepository.findAll());
+
+        Map<Long, TaggedStore> freshStoreTags = new HashMap<>();
+        for (Object[] row : tagRepository.findAllStoreTagRows()) {
+            long storeId = ((Number) row[0]).longValue();
+            Integer denseId = fresh.denseIdsByTagId.get(((Number) row[1]).longValue());
+            if (denseId != null) {
+                freshStoreTags.computeIfAbsent(storeId, id -> new TaggedStore((String) row[2], new BitSet())).tags().set(denseId);
+            }
+        }
+
+        snapshot = fresh;
+        storeTags.clear();
+        storeTags.putAll(freshStoreTags);
+        loaded = true;
+        log.info("Tag dictionary loaded: {} tag(s), {} tagged store(s)", fresh.tags.size(), freshStoreTags.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /***
+     * @return the tag with this (already normalized) name, or empty when the dictionary doesn't know it
+     */
+    public Optional<Tag> findByName(String normalizedName) {
+        Snapshot current = snapshot;
+        Integer denseId = current.denseIdsByName.get(normalizedName);
+        return denseId == null ? Optional.empty() : Optional.of(copyOf(current.tags.get(denseId)));
+    }
+
+    public List<Tag> allTags() {
+        return snapshot.tags.stream().map(TagDictionary::copyOf).toList();
+    }
+
+    /***
+     * registers tags that were just read from or written to the DB, tags already known are skipped
+     */
+    public void register(Collection<Tag> tags) {
+        afterCommit(() -> doRegister(tags));
+    }
+
+    public void addStoreTags(Long storeId, String storeName, Collection<Tag> tags) {
+        afterCommit(() -> {
+            doRegister(tags);
+            doAddStoreTags(storeId, storeName, tags);
+        });
+    }
+
+    //keeps the name order right, a store without tags isn't tracked so there's nothing to rename
+    public void renameStore(Long storeId, String storeName) {
+        afterCommit(() -> storeTags.computeIfPresent(storeId, (id, existing) -> new TaggedStore(storeName, existing.tags())));
+    }
+
+    public void removeStoreTags(Long storeId, Collection<Tag> tags) {
+        afterCommit(() -> doRemoveStoreTags(storeId, tags));
+    }
+
+    public void removeStore(Long storeId) {
+        afterCommit(() -> storeTags.remove(storeId));
+    }
+
+    private synchronized void doRegister(Collection<Tag> tags) {
+        Snapshot current = snapshot;
+        List<Tag> unknown = tags.stream()
+                .filter(tag -> tag.getId() != null && !current.denseIdsByTagId.containsKey(tag.getId()))
+                .toList();
+        if (!unknown.isEmpty()) {
+            snapshot = current.with(unknown);
+        }
+    }
+
+    private void doAddStoreTags(Long storeId, String storeName, Collection<Tag> tags) {
+        Snapshot current = snapshot;
+        storeTags.compute(storeId, (id, existing) -> {
+            BitSet updated = existing == null ? new BitSet() : (BitSet) existing.tags().clone();
+            tags.stream()
+                    .map(tag -> current.denseIdsByTagId.get(tag.getId()))
+                    .filter(Objects::nonNull)
+                    .forEach(updated::set);
+            return new TaggedStore(storeName, updated);
+        });
+    }
+
+    private void doRemoveStoreTags(Long storeId, Collection<Tag> tags) {
+        Snapshot current = snapshot;
+        storeTags.computeIfPresent(storeId, (id, existing) -> {
+            BitSet updated = (BitSet) existing.tags().clone();
+            tags.stream()
+                    .map(tag -> current.denseIdsByTagId.get(tag.getId()))
+                    .filter(Objects::nonNull)
+                    .forEach(updated::clear);
+            return updated.isEmpty() ? null : new TaggedStore(existing.name(), updated);
+        });
+    }
+
+    /***
+     * @return the dense-id bitset for these names, or empty if any name is unknown (caller should fall back to the DB)
+     */
+    public Optional<BitSet> toBitSet(Collection<String> normalizedNames) {
+        Snapshot current = snapshot;
+        BitSet bits = new BitSet(current.tags.size());
+        for (String name : normalizedNames) {
+            Integer denseId = current.denseIdsByName.get(name);
+            if (denseId == null) {
+                return Optional.empty();
+            }
+            bits.set(denseId);
+        }
+        return Optional.of(bits);
+    }
+
+    /***
+     * @param matchAll true -> store must carry every tag in the query, false -> at least one
+     * @return ids of the stores matching the query
+     */
+    public Set<Long> findStoreIds(BitSet query, boolean matchAll) {
+        Set<Long> matches = new HashSet<>();
+        storeTags.forEach((storeId, store) -> {
+            if (matches(store.tags(), query, matchAll)) {
+                matches.add(storeId);
+            }
+        });
+        return matches;
+    }
+
+    /***
+     * @return the name of a tagged store, null when the store has no tags (or was deleted since it matched)
+     */
+    public String storeName(Long storeId) {
+        TaggedStore store = storeTags.get(storeId);
+        return store == null ? null : store.name();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean matches(BitSet storeBits, BitSet query, boolean matchAll) {
+        if (!matchAll) {
+            return storeBits.intersects(query);
+        }
+        BitSet missing = (BitSet) query.clone();
+        missing.andNot(storeBits);
+        return missing.isEmpty();
+    }
+
+    private static Tag copyOf(Tag tag) {
+        return new Tag(tag.getId(), tag.getName());
+    }
+
+    //never mutated once it's in the map, changes swap in a new one
+    private record TaggedStore(String name, BitSet tags) {
+    }
+
+    private record Snapshot(List<Tag> tags, Map<String, Integer> denseIdsByName, Map<Long, Integer> denseIdsByTagId) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), Map.of());
+
+        Snapshot with(Collection<Tag> additions) {
+            List<Tag> newTags = new ArrayList<>(tags);
+            Map<String, Integer> newByName = new HashMap<>(denseIdsByName);
+            Map<Long, Integer> newByTagId = new HashMap<>(denseIdsByTagId);
+            for (Tag tag : additions) {
+                if (newByTagId.containsKey(tag.getId())) {
+                    continue;
+                }
+                int denseId = newTags.size();
+                newTags.add(copyOf(tag));
+                newByName.put(tag.getName().trim().toLowerCase(), denseId);
+                newByTagId.put(tag.getId(), denseId);
+            }
+            return new Snapshot(List.copyOf(newTags), Map.copyOf(newByName), Map.copyOf(newByTagId));
+        }
+    }
+}
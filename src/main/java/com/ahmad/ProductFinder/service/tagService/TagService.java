@@ -1,8 +1,15 @@
 package com.ahmad.ProductFinder.service.tagService;
 
+import com.ahmad.ProductFinder.configuration.CacheNames;
 import com.ahmad.ProductFinder.models.Tag;
 import com.ahmad.ProductFinder.repositories.StoreRepository;
 import com.ahmad.ProductFinder.repositories.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,13 +19,18 @@ import java.util.stream.Collectors;
 @Service
 public class TagService implements ITagService{
     private final TagRepository tagRepository;
+    private final TagDictionary tagDictionary;
+    private final EntityManager entityManager;
 
-    public TagService(TagRepository tagRepository) {
+    public TagService(TagRepository tagRepository, TagDictionary tagDictionary, EntityManager entityManager) {
         this.tagRepository = tagRepository;
+        this.tagDictionary = tagDictionary;
+        this.entityManager = entityManager;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.TAGS, allEntries = true)
     public List<Tag> findOrCreateTags(Collection<String> names) {
         if (names == null || names.isEmpty()) {
             return Collections.emptyList();
@@ -29,35 +41,72 @@ public class TagService implements ITagService{
                 .map(String::toLowerCase)
                 .collect(Collectors.toSet());
 
+        //answer from the in-memory dictionary first, only the misses go to the DB
+        List<Tag> knownTags = new ArrayList<>();
+        Set<String> misses = new HashSet<>();
+        for (String name : normalized) {
+            tagDictionary.findByName(name).ifPresentOrElse(knownTags::add, () -> misses.add(name));
+        }
+        if (misses.isEmpty()) {
+            return knownTags;
+        }
 
-        //find existing tags
-        List<Tag> existingTags = tagRepository.findAllByNameIn(normalized);
-
-        //get their names
-        Set<String> existingNames = existingTags.stream()
-                .map(Tag::getName)
-                .collect(Collectors.toSet());
-
-        //the new tags to create
-        List<Tag> toCreate = normalized.stream()
-                .filter(name -> !existingNames.contains(name))
-                .map(Tag::new)
-                .collect(Collectors.toList());
+        //one INSERT ... ON CONFLICT for every miss, returns both the existing and the freshly created rows
+        String[] missingNames = misses.toArray(String[]::new);
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        List<Tag> upsertedTags = new ArrayList<>(tagRepository.upsertAllByName(allocateTagIds(session, missingNames.length), missingNames));
+        //the insert went around hibernate: same cleanup it does after its own native DML on the tag table
+        //(tag L2 region + query cache timestamps), before and after commit
+        BulkOperationCleanupAction.schedule(session, Set.of("tag"));
+        //names a concurrent caller created while we ran aren't in there (see the query), they're committed by now
+        if (upsertedTags.size() < misses.size()) {
+            Set<String> found = upsertedTags.stream().map(Tag::getName).collect(Collectors.toSet());
+            upsertedTags.addAll(tagRepository.findAllByNameIn(misses.stream().filter(name -> !found.contains(name)).toList()));
+        }
+        tagDictionary.register(upsertedTags);
 
-        //persist
-        List<Tag> saveNewTags = tagRepository.saveAll(toCreate);
-        List<Tag> combinedTagsList = new ArrayList<>(existingTags.size() + saveNewTags.size());
-        combinedTagsList.addAll(existingTags);
-        combinedTagsList.addAll(saveNewTags);
+        List<Tag> combinedTagsList = new ArrayList<>(knownTags.size() + upsertedTags.size());
+        combinedTagsList.addAll(knownTags);
+        combinedTagsList.addAll(upsertedTags);
 
         return combinedTagsList;
+    }
+
+    /***
+     * ids from hibernate's own tag_seq generator, so the native upsert takes them from the same pooled blocks (100 ids per
+     * nextval) as a save() would, instead of a nextval per row burning a block each. An id whose name turns out to exist
+     * already is just skipped
+     */
+    private static Long[] allocateTagIds(SharedSessionContractImplementor session, int count) {
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Tag.class)
+                .getGenerator();
+        Long[] ids = new Long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (Long) generator.generate(session, null);
+        }
+        return ids;
+    }
 
-//        tagRepository.bulkInsertIgnoreExistingTags(new ArrayList<>(normalized));
-//        return tagRepository.findAllByNameIn(normalized);
+    /***
+     * same as findOrCreateTags but hands back managed references, so the tags can be attached to a store
+     * without hibernate complaining about detached entities (dictionary tags are plain copies)
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.TAGS, allEntries = true) //self call below doesn't go through the proxy
+    public List<Tag> findOrCreateTagReferences(Collection<String> names) {
+        return findOrCreateTags(names).stream()
+                .map(tag -> tagRepository.getReferenceById(tag.getId()))
+                .toList();
     }
 
+    //stays on the primary (no readOnly), the list is cached for an hour and must not come from a lagging replica
     @Override
+    @Cacheable(cacheNames = CacheNames.TAGS, key = "'all'")
     public List<Tag> listAllTags() {
+        if (tagDictionary.isLoaded()) {
+            return tagDictionary.allTags();
+        }
         return tagRepository.findAll();
     }
 }
@@ -8,19 +8,19 @@ import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.AlreadyExistsE
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.IllegalArgumentException;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.InvalidTokenException;
 import com.ahmad.ProductFinder.globalExceptionHandling.exceptions.ResourceNotFoundException;
+import com.ahmad.ProductFinder.initializationStuffs.RoleRegistry;
 import com.ahmad.ProductFinder.mailing.AccountVerificationEmailContext;
 import com.ahmad.ProductFinder.mailing.EmailService;
 import com.ahmad.ProductFinder.models.Role;
 import com.ahmad.ProductFinder.models.SecureToken;
 import com.ahmad.ProductFinder.models.User;
-import com.ahmad.ProductFinder.repositories.RoleRepository;
 import com.ahmad.ProductFinder.repositories.UserRepository;
 import com.ahmad.ProductFinder.security.user.LPFUserDetails;
 import com.ahmad.ProductFinder.service.secureTokenService.SecureTokenService;
-import com.sun.xml.messaging.saaj.packaging.mime.MessagingException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -31,7 +31,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -47,57 +46,56 @@ import static java.lang.String.format;
 public class UserService implements IUserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final SecureTokenService secureTokenService;
     private final EmailService emailService;
 
     @Value("${site.base.url.https}")
     private String baseURL;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleRepository roleRepository, SecureTokenService secureTokenService, EmailService emailService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleRegistry roleRegistry, SecureTokenService secureTokenService, EmailService emailService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.secureTokenService = secureTokenService;
         this.emailService = emailService;
     }
 
+    /***
+     * no exists-checks up front: the insert itself is the check, a duplicate email/username/phone number trips
+     * the unique constraints and comes back as AlreadyExistsException. Roles come from the RoleRegistry, so the
+     * happy path is just the user insert (+ user_roles and the verification token)
+     */
     @Override
     @Transactional
     public UserResponseDto registerUser(CreateUserRequestDto request) {
         log.info("Attempting to create user with email: {} and username: {}", request.getEmail(), request.getUsername());
-        return Optional.of(request)
-                .filter(user -> !userRepository.existsByEmail(request.getEmail())
-                        && !userRepository.existsByUsername(request.getUsername()))
-                .map(req -> {
-                    User user = new User();
-                    user.setFirstName(req.getFirstName());
-                    user.setLastname(req.getLastName());
-                    user.setPassword(passwordEncoder.encode(req.getPassword()));
-                    user.setUsername(req.getUsername());
-                    user.setEmail(req.getEmail());
+        User user = new User();
+        user.setFirstName(request.getFirstName());
+        user.setLastname(request.getLastName());
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setUsername(request.getUsername());
+        user.setEmail(request.getEmail());
 
-                    //THIS FOR ASSIGNING DEFAULT ROLE "USER" ON SIGN UP, CAN UPGRADE TO STORE_OWNER ON STORE CREATION
-                  /*  Role customerRole = roleRepository.findByName("USER")
-                            .orElseThrow(() -> new ResourceNotFoundException("Role not found"));
-                    user.setRoles(Set.of(customerRole));*/
+        //THIS FOR ASSIGNING DEFAULT ROLE "USER" ON SIGN UP, CAN UPGRADE TO STORE_OWNER ON STORE CREATION
+      /*  Role customerRole = roleRepository.findByName("USER")
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found"));
+        user.setRoles(Set.of(customerRole));*/
 
-                    Set<Role> rolesFromDb = req.getRole().stream().map(roleName ->
-                            roleRepository.findByName(roleName)
-                                    .orElseThrow(() -> new ResourceNotFoundException(format("Role with name(s),%s , not found!", roleName)))
-                    ).collect(Collectors.toSet());
-                    user.setRoles(rolesFromDb);
-                    user.setPhoneNumber(req.getPhoneNumber());
-                    user.setCreatedAt(LocalDateTime.now());
-                    userRepository.save(user);
-                    sendRegistrationConfirmationEmail(user);
+        Set<Role> roles = request.getRole().stream().map(roleRegistry::getRole).collect(Collectors.toSet());
+        user.setRoles(roles);
+        user.setPhoneNumber(request.getPhoneNumber());
+        user.setCreatedAt(LocalDateTime.now());
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("User creation failed - email, username or phone number already exists: {}", e.getMostSpecificCause().getMessage());
+            throw new AlreadyExistsException(format("User with email,%s ,or username,%s , already exist!", request.getEmail(), request.getUsername()));
+        }
+        sendRegistrationConfirmationEmail(user);
 
-                    log.info("User created successfully with username: {}", user.getUsername());
-                    return UserResponseDto.from(user);
-                }).orElseThrow(() -> {
-                    log.warn("User creation failed - email or username already exists");
-                    return new AlreadyExistsException(format("User with email,%s ,or username,%s , already exist!", request.getEmail(), request.getUsername()));
-                });
+        log.info("User created successfully with username: {}", user.getUsername());
+        return UserResponseDto.from(user);
     }
 
 
@@ -217,11 +215,7 @@ public class UserService implements IUserService {
         verificationEmailContext.setToken(secureToken.getToken());
         verificationEmailContext.buildVerificationUrl(baseURL, secureToken.getToken());
 
-        try {
-            emailService.sendEmail(verificationEmailContext);
-        } catch (MessagingException | jakarta.mail.MessagingException e) {
-            e.printStackTrace();
-        }
+        emailService.sendEmail(verificationEmailContext);
     }
 
     @Override
@@ -1,102 +1,145 @@
-INSERT INTO tag (name)
-VALUES ('jollof rice'),
-       ('suya'),
-       ('pounded yam'),
-       ('fufu'),
-       ('garri'),
-       ('egusi soup'),
-       ('efo riro'),
-       ('akara'),
-       ('moimoi'),
-       ('ofada rice'),
-       ('amala'),
-       ('ogbono soup'),
-       ('banga soup'),
-       ('pepper soup'),
-       ('nkwobi'),
-       ('isi ewu'),
-       ('plantain chips'),
-       ('chin chin'),
-       ('puff puff'),
-       ('kokoro'),
-       ('masa'),
-       ('zobo'),
-       ('kunu'),
-       ('sobo drink'),
-       ('palm oil'),
-       ('groundnut oil'),
-       ('fresh fish'),
-       ('tilapia'),
-       ('stockfish'),
-       ('dried fish'),
-       ('bush meat'),
-       ('fresh meat'),
-       ('chicken'),
-       ('goat meat'),
-       ('yam tuber'),
-       ('cassava'),
-       ('cocoyam'),
-       ('plantain'),
-       ('okra'),
-       ('ugu'),
-       ('bitterleaf'),
-       ('scent leaf'),
-       ('uziza leaf'),
-       ('crayfish'),
-       ('garri eba'),
-       ('banku'),
-       ('tuwo masara'),
-       ('wheat flour'),
-       ('semovita'),
-       ('semo'),
-       ('semolina'),
-       ('fufu flour'),
-       ('spaghetti'),
-       ('indomie'),
-       ('noodles'),
-       ('rice'),
-       ('beans'),
-       ('sugar'),
-       ('salt'),
-       ('tomatoes'),
-       ('onions'),
-       ('garlic'),
-       ('ginger'),
-       ('pepper'),
-       ('seasoning cube'),
-       ('crayfish powder'),
-       ('africano coffee'),
-       ('akara soup'),
-       ('fish pepper soup'),
-       ('ankara fabric'),
-       ('aso-ebi'),
-       ('gele'),
-       ('wrapper'),
-       ('agbada'),
-       ('buba'),
-       ('iro'),
-       ('sokoto'),
-       ('dashiki'),
-       ('adire'),
-       ('shoe shine'),
-       ('haircut'),
-       ('barber'),
-       ('tailor'),
-       ('boutique'),
-       ('beauty salon'),
-       ('spa'),
-       ('pharmacy'),
-       ('chemist'),
-       ('clinic'),
-       ('hospital'),
-       ('ATM'),
-       ('bank branch'),
-       ('petrol station'),
-       ('grocer'),
-       ('electronics'),
-       ('phone repair'),
-       ('internet café'),
-       ('bookstore'),
-       ('stationery'),
-       ('photocopy shop')
+-- tag ids come from a pooled sequence (allocationSize = 100): every nextval hands hibernate the 100 ids up to the value
+-- it returns. The seeds don't nextval per row (that burns a whole block each), they take consecutive ids above both the
+-- existing rows and every block handed out so far, then the sequence is moved up to them
+CREATE SEQUENCE IF NOT EXISTS tag_seq START WITH 1 INCREMENT BY 100;
+
+INSERT INTO tag (id, name)
+SELECT GREATEST((SELECT last_value FROM tag_seq), (SELECT COALESCE(MAX(id), 0) FROM tag)) + row_number() OVER (ORDER BY v.name), v.name
+FROM (VALUES ('jollof rice'),
+              ('suya'),
+              ('pounded yam'),
+              ('fufu'),
+              ('garri'),
+              ('egusi soup'),
+              ('efo riro'),
+              ('akara'),
+              ('moimoi'),
+              ('ofada rice'),
+              ('amala'),
+              ('ogbono soup'),
+              ('banga soup'),
+              ('pepper soup'),
+              ('nkwobi'),
+              ('isi ewu'),
+              ('plantain chips'),
+              ('chin chin'),
+              ('puff puff'),
+              ('kokoro'),
+              ('masa'),
+              ('zobo'),
+              ('kunu'),
+              ('sobo drink'),
+              ('palm oil'),
+              ('groundnut oil'),
+              ('fresh fish'),
+              ('tilapia'),
+              ('stockfish'),
+              ('dried fish'),
+              ('bush meat'),
+              ('fresh meat'),
+              ('chicken'),
+              ('goat meat'),
+              ('yam tuber'),
+              ('cassava'),
+              ('cocoyam'),
+              ('plantain'),
+              ('okra'),
+              ('ugu'),
+              ('bitterleaf'),
+              ('scent leaf'),
+              ('uziza leaf'),
+              ('crayfish'),
+              ('garri eba'),
+              ('banku'),
+              ('tuwo masara'),
+              ('wheat flour'),
+              ('semovita'),
+              ('semo'),
+              ('semolina'),
+              ('fufu flour'),
+              ('spaghetti'),
+              ('indomie'),
+              ('noodles'),
+              ('rice'),
+              ('beans'),
+              ('sugar'),
+              ('salt'),
+              ('tomatoes'),
+              ('onions'),
+              ('garlic'),
+              ('ginger'),
+              ('pepper'),
+              ('seasoning cube'),
+              ('crayfish powder'),
+              ('africano coffee'),
+              ('akara soup'),
+              ('fish pepper soup'),
+              ('ankara fabric'),
+              ('aso-ebi'),
+              ('gele'),
+              ('wrapper'),
+              ('agbada'),
+              ('buba'),
+              ('iro'),
+              ('sokoto'),
+              ('dashiki'),
+              ('adire'),
+              ('shoe shine'),
+              ('haircut'),
+              ('barber'),
+              ('tailor'),
+              ('boutique'),
+              ('beauty salon'),
+              ('spa'),
+              ('pharmacy'),
+              ('chemist'),
+              ('clinic'),
+              ('hospital'),
+              ('ATM'),
+              ('bank branch'),
+              ('petrol station'),
+              ('grocer'),
+              ('electronics'),
+              ('phone repair'),
+              ('internet café'),
+              ('bookstore'),
+              ('stationery'),
+              ('photocopy shop')) AS v(name)
+WHERE NOT EXISTS (SELECT 1 FROM tag t WHERE t.name = v.name)
 ON CONFLICT DO NOTHING;
+SELECT setval('tag_seq', GREATEST((SELECT last_value FROM tag_seq), (SELECT COALESCE(MAX(id), 1) FROM tag)));
+
+-- prefix search on store name (LOWER(name) LIKE 'abc%') can only use an index built with text_pattern_ops
+CREATE INDEX IF NOT EXISTS idx_store_lower_name ON store (lower(name) text_pattern_ops);
+
+-- bounding box filters on the raw geometry (vector tiles: location && tile envelope)
+CREATE INDEX IF NOT EXISTS idx_store_location ON store USING GIST (location);
+
+-- weighted store search document (name > description) kept in sync by postgres, plus the GIN index the FTS queries use
+ALTER TABLE store ADD COLUMN IF NOT EXISTS searchable tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_store_searchable ON store USING GIN (searchable);
+
+-- weighted product search document (name > category > description) for the product FTS and the nearby product search
+ALTER TABLE product ADD COLUMN IF NOT EXISTS searchable tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'C')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_product_searchable ON product USING GIN (searchable);
+
+-- registration relies on these to reject duplicates (no exists-check before the insert), hibernate only adds them on a fresh schema
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email ON users (email);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_username ON users (username);
+
+-- store_availability read model (StoreAvailability / StoreAvailabilityService): the indexes that make the product near me searches single table scans over in stock rows.
+-- btree_gist lets product_id (equality) and location (radius) share one GiST index
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+CREATE INDEX IF NOT EXISTS idx_store_availability_product_location ON store_availability USING GIST (product_id, location) WHERE in_stock;
+CREATE INDEX IF NOT EXISTS idx_store_availability_location ON store_availability USING GIST (location) WHERE in_stock;
+CREATE INDEX IF NOT EXISTS idx_store_availability_searchable ON store_availability USING GIN (product_searchable) WHERE in_stock;
+CREATE INDEX IF NOT EXISTS idx_store_availability_store ON store_availability (store_id) INCLUDE (in_stock);
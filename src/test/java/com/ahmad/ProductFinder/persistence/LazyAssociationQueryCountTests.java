@@ -0,0 +1,160 @@
+package com.ahmad.ProductFinder.persistence;
+
+import com.ahmad.ProductFinder.dtos.response.StoreResponseDto;
+import com.ahmad.ProductFinder.embedded.Address;
+import com.ahmad.ProductFinder.models.Role;
+import com.ahmad.ProductFinder.models.Store;
+import com.ahmad.ProductFinder.models.Tag;
+import com.ahmad.ProductFinder.models.User;
+import com.ahmad.ProductFinder.repositories.RoleRepository;
+import com.ahmad.ProductFinder.repositories.StoreRepository;
+import com.ahmad.ProductFinder.repositories.TagRepository;
+import com.ahmad.ProductFinder.repositories.UserRepository;
+import com.ahmad.ProductFinder.service.store.storeService.IStoreService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/***
+ * Store.tags and User.roles are LAZY, these pin down that the reads which need them still fetch them in a
+ * fixed number of statements (entity graph / @BatchSize) and that the writes which don't need them never load them
+ */
+@PostgresIntegrationTest
+class LazyAssociationQueryCountTests {
+    private static final int STORE_COUNT = 30;
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private IStoreService storeService;
+
+    private QueryCounter queryCounter;
+    private User owner;
+    private List<Tag> tags;
+    private List<Long> storeIds;
+
+    @BeforeEach
+    void createStores() {
+        queryCounter = new QueryCounter(entityManagerFactory);
+        //unique names, the container (and its rows) is shared by every test of the context
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        transactionTemplate.executeWithoutResult(status -> {
+            Role userRole = roleRepository.findByName("USER").orElseThrow();
+            owner = User.builder()
+                    .email("owner-" + suffix + "@example.com")
+                    .firstName("Query")
+                    .lastname("Count")
+                    .username("owner-" + suffix)
+                    .phoneNumber("+000" + suffix)
+                    .active(true)
+                    .roles(new ArrayList<>(List.of(userRole)))
+                    .build();
+            userRepository.save(owner);
+
+            tags = tagRepository.saveAll(List.of(new Tag("qc-a-" + suffix), new Tag("qc-b-" + suffix), new Tag("qc-c-" + suffix)));
+
+            storeIds = new ArrayList<>();
+            for (int i = 0; i < STORE_COUNT; i++) {
+                double latitude = 6.5 + i * 0.001;
+                double longitude = 3.3 + i * 0.001;
+                Store store = new Store();
+                store.setName("qc-store-" + suffix + "-" + i);
+                store.setAddress(new Address("1 Test Street", "Lagos", "Lagos", "Nigeria", "100001"));
+                store.setLatitude(latitude);
+                store.setLongitude(longitude);
+                store.setLocation(GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude)));
+                store.setActive(true);
+                store.setOwner(owner);
+                store.setTags(new ArrayList<>(tags));
+                storeIds.add(storeRepository.save(store).getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void deleteStores() {
+        transactionTemplate.executeWithoutResult(status -> {
+            storeRepository.deleteAllById(storeIds);
+            tagRepository.deleteAll(tags);
+            userRepository.deleteById(owner.getId());
+        });
+    }
+
+    @Test
+    void storePageFetchesTagsInOneBatchWhateverThePageSize() {
+        long small = statementsToMapNewestStores(5);
+        long large = statementsToMapNewestStores(25);
+
+        //select + count + one batch for the tags, no statement per store
+        assertEquals(small, large, "tags must not be loaded once per store");
+        assertTrue(large <= 3, "expected at most 3 statements, got " + large);
+    }
+
+    @Test
+    void singleStoreReadFetchesTagsWithTheStore() {
+        Long storeId = storeIds.get(0);
+
+        long statements = queryCounter.statements(() -> transactionTemplate.executeWithoutResult(status -> {
+            Store store = storeRepository.findByIdAndIsActiveTrue(storeId).orElseThrow();
+            assertEquals(3, StoreResponseDto.from(store).tags().size());
+        }));
+
+        assertEquals(1, statements);
+    }
+
+    @Test
+    void disablingStoreDoesNotLoadItsTags() {
+        long collectionLoads = queryCounter.collectionLoads(() -> storeService.disableStore(storeIds.get(0)));
+
+        assertEquals(0, collectionLoads);
+    }
+
+    @Test
+    void activeUserLookupFetchesRolesWithTheUser() {
+        long statements = queryCounter.statements(() -> transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByUsernameAndActiveTrue(owner.getUsername());
+            assertTrue(Hibernate.isInitialized(user.getRoles()));
+            assertEquals(1, user.getRoles().size());
+        }));
+
+        assertEquals(1, statements);
+    }
+
+    //the fixture stores have the highest ids, so the newest page is all theirs
+    private long statementsToMapNewestStores(int pageSize) {
+        return queryCounter.statements(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<StoreResponseDto> stores = storeRepository
+                    .findByIsActiveTrue(PageRequest.of(0, pageSize, Sort.by("id").descending()))
+                    .map(StoreResponseDto::from)
+                    .getContent();
+            assertEquals(pageSize, stores.size());
+        }));
+    }
+}
@@ -0,0 +1,16 @@
+package com.ahmad.ProductFinder.persistence;
+
+import org.springframework.test.context.TestPropertySource;
+
+//the "before": same reads with the second level and query caches switched off
+@PostgresIntegrationTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class NoSecondLevelCacheQueryCountTests extends ReferenceDataQueryCountTests {
+    @Override
+    long expectedWarmStatements() {
+        return 1;
+    }
+}
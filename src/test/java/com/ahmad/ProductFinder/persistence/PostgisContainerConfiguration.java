@@ -0,0 +1,32 @@
+package com.ahmad.ProductFinder.persistence;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/***
+ * throwaway PostGIS (same image as loadtest/replicas/docker-compose.yml) wired in as the app's datasource by
+ * @ServiceConnection, hibernate + data.sql build the schema in it like on a real startup
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgisContainerConfiguration {
+    private static final DockerImageName POSTGIS = DockerImageName.parse("postgis/postgis:16-3.4")
+            .asCompatibleSubstituteFor("postgres");
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgisContainer() {
+        return new PostgreSQLContainer<>(POSTGIS);
+    }
+
+    /***
+     * skip only on a dev machine without docker. On CI (CI env var set, as GitHub Actions and most runners do) a missing
+     * docker fails the tests instead of quietly skipping them
+     */
+    static boolean noDockerOutsideCi() {
+        return System.getenv("CI") == null && !DockerClientFactory.instance().isDockerAvailable();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ahmad.ProductFinder.persistence;
+
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/***
+ * full context against a PostGIS container (PostgisContainerConfiguration), part of the normal `mvn test`: needs docker,
+ * skipped without it on a dev machine, failing without it on CI.
+ * Hibernate statistics are on so tests can count statements, see QueryCounter
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DisabledIf(value = "com.ahmad.ProductFinder.persistence.PostgisContainerConfiguration#noDockerOutsideCi",
+        disabledReason = "docker is not available")
+@Import(PostgisContainerConfiguration.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        //the rest only has to resolve, nothing here sends mail or uploads images
+        "jwt.token.jwtSecret=query-count-tests-only-query-count-tests-only-0123456789",
+        "cloudinary.cloud_name=test",
+        "cloudinary.api_key=test",
+        "cloudinary.api_secret=test",
+        "sender.email=tests@example.com",
+        "spring.mail.port=2525",
+        "spring.mail.username=test",
+        "spring.mail.password=test"
+})
+public @interface PostgresIntegrationTest {
+}
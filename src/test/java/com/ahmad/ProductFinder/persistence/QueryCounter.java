@@ -0,0 +1,35 @@
+package com.ahmad.ProductFinder.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/***
+ * counts what hibernate sends to the DB while some code runs (needs hibernate.generate_statistics=true).
+ * Statistics are global to the session factory, so keep background work (lucene, replicas) off in these tests
+ */
+public class QueryCounter {
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /***
+     * @return JDBC statements prepared while the action ran
+     */
+    public long statements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /***
+     * @return lazy collections initialized while the action ran
+     */
+    public long collectionLoads(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getCollectionLoadCount();
+    }
+}
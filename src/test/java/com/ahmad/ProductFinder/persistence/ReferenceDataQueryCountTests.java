@@ -0,0 +1,107 @@
+package com.ahmad.ProductFinder.persistence;
+
+import com.ahmad.ProductFinder.models.Product;
+import com.ahmad.ProductFinder.models.Role;
+import com.ahmad.ProductFinder.models.Tag;
+import com.ahmad.ProductFinder.repositories.ProductRepository;
+import com.ahmad.ProductFinder.repositories.RoleRepository;
+import com.ahmad.ProductFinder.repositories.TagRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/***
+ * statement counts for the reference data reads (Role by name, Tag and Product by id), run once with the second level
+ * cache (SecondLevelCacheQueryCountTests) and once without it (NoSecondLevelCacheQueryCountTests) so the before/after
+ * shows up side by side: one select cold either way, warm is 0 with the cache and 1 without.
+ * Each read runs in its own transaction (own session), so a warm hit is the L2 cache answering, not the session
+ */
+abstract class ReferenceDataQueryCountTests {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private QueryCounter queryCounter;
+    private Long tagId;
+    private Long productId;
+
+    @BeforeEach
+    void createRows() {
+        queryCounter = new QueryCounter(entityManagerFactory);
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        transactionTemplate.executeWithoutResult(status -> {
+            tagId = tagRepository.save(new Tag("l2-" + suffix)).getId();
+            Product product = new Product();
+            product.setName("l2-product-" + suffix);
+            product.setDescription("second level cache test product");
+            product.setCategory("l2-test");
+            product.setPrice(new BigDecimal("9.99"));
+            productId = productRepository.save(product).getId();
+        });
+        //start cold, the inserts above put the rows in their regions already (no-op without the cache)
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @AfterEach
+    void deleteRows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            productRepository.deleteById(productId);
+            tagRepository.deleteById(tagId);
+        });
+    }
+
+    //statements for a read of a row that was already read once, in another session
+    abstract long expectedWarmStatements();
+
+    //registration and store creation look roles up by name
+    @Test
+    void roleByName() {
+        assertEquals(1, statementsFor(() -> roleRepository.findByName("USER").map(Role::getName).orElseThrow()));
+        assertEquals(expectedWarmStatements(), statementsFor(() -> roleRepository.findByName("USER").map(Role::getName).orElseThrow()));
+    }
+
+    @Test
+    void tagById() {
+        assertEquals(1, statementsFor(() -> tagRepository.findById(tagId).map(Tag::getName).orElseThrow()));
+        assertEquals(expectedWarmStatements(), statementsFor(() -> tagRepository.findById(tagId).map(Tag::getName).orElseThrow()));
+    }
+
+    //product detail by id
+    @Test
+    void productById() {
+        assertEquals(1, statementsFor(() -> productRepository.findById(productId).map(Product::getName).orElseThrow()));
+        assertEquals(expectedWarmStatements(), statementsFor(() -> productRepository.findById(productId).map(Product::getName).orElseThrow()));
+    }
+
+    //with the cache, an update through hibernate refreshes the READ_WRITE region instead of dropping it
+    @Test
+    void productByIdAfterAnUpdate() {
+        transactionTemplate.executeWithoutResult(status ->
+                productRepository.findById(productId).orElseThrow().setPrice(new BigDecimal("19.99")));
+
+        assertEquals(expectedWarmStatements(), statementsFor(() -> {
+            BigDecimal price = productRepository.findById(productId).map(Product::getPrice).orElseThrow();
+            assertEquals(0, price.compareTo(new BigDecimal("19.99")));
+        }));
+    }
+
+    private long statementsFor(Runnable read) {
+        return queryCounter.statements(() -> transactionTemplate.executeWithoutResult(status -> read.run()));
+    }
+}
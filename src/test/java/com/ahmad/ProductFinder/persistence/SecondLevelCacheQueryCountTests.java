@@ -0,0 +1,10 @@
+package com.ahmad.ProductFinder.persistence;
+
+//the app's own config: Role / Tag / Product regions + the cacheable role query
+@PostgresIntegrationTest
+class SecondLevelCacheQueryCountTests extends ReferenceDataQueryCountTests {
+    @Override
+    long expectedWarmStatements() {
+        return 0;
+    }
+}